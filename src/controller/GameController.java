@@ -1,14 +1,19 @@
 package controller;
 
+import model.GameBoard;
 import model.GameModel;
 import model.Player;
 import view.GameView;
 import view.MainMenuView;
 import utils.ThreadManager;
 import utils.HighScoreManager;
+import utils.BoardSupply;
 import javax.swing.*;
+import java.awt.BorderLayout;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 public class GameController implements KeyListener {
 
@@ -17,16 +22,21 @@ public class GameController implements KeyListener {
     private MainMenuView menuView;
     private ThreadManager threadManager;
     private HighScoreManager highScoreManager;
+    private BoardSupply boardSupply;
     private boolean gameRunning;
 
     public GameController() {
         this.gameModel = new GameModel();
         this.threadManager = new ThreadManager();
         this.highScoreManager = new HighScoreManager();
+        this.boardSupply = new BoardSupply();
         this.gameRunning = false;
 
         this.gameView = new GameView(this);
         gameModel.addListener(gameView);
+
+        // Domyślny rozmiar z okna "New Game" jest gotowy, zanim gracz kliknie
+        boardSupply.prefetch(20, 25, false);
     }
 
     public void setMenuView(MainMenuView menuView) {
@@ -34,11 +44,68 @@ public class GameController implements KeyListener {
     }
 
     public void startNewGame(int rows, int cols) {
+        startNewGame(rows, cols, false);
+    }
+
+    public void startNewGame(int rows, int cols, boolean endless) {
+        startNewGame(rows, cols, endless, GameModel.CLASSIC_GHOSTS);
+    }
+
+    // Plansza z zapasu startuje od razu; gdy zapas jest pusty, generacja idzie w tle z paskiem postępu
+    public void startNewGame(int rows, int cols, boolean endless, int ghosts) {
+        CompletableFuture<GameBoard> pending = boardSupply.obtain(rows, cols, endless);
+        if (pending.isDone() && !pending.isCompletedExceptionally()) {
+            startGame(pending.join(), ghosts);
+        } else {
+            showGenerationProgress(pending, ghosts);
+        }
+    }
+
+    private void showGenerationProgress(CompletableFuture<GameBoard> pending, int ghosts) {
+        JDialog dialog = new JDialog(menuView, "New Game", true);
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setString("Generating maze...");
+        progressBar.setStringPainted(true);
+
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> {
+            pending.cancel(false);
+            dialog.dispose();
+        });
+
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        panel.add(progressBar, BorderLayout.CENTER);
+        panel.add(cancelButton, BorderLayout.SOUTH);
+        dialog.setContentPane(panel);
+        dialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        dialog.pack();
+        dialog.setLocationRelativeTo(menuView);
+
+        pending.whenComplete((board, error) -> SwingUtilities.invokeLater(() -> {
+            dialog.dispose();
+            if (board != null) {
+                startGame(board, ghosts);
+            } else if (!(error instanceof CancellationException)) {
+                JOptionPane.showMessageDialog(
+                        menuView,
+                        "Error starting game: " + error.getMessage(),
+                        "Game Error",
+                        JOptionPane.ERROR_MESSAGE
+                );
+            }
+        }));
+
+        dialog.setVisible(true);
+    }
+
+    private void startGame(GameBoard board, int ghosts) {
         try {
             stopCurrentGame();
 
-            gameModel.initializeGame(rows, cols);
-            gameView.initializeGameTable(rows, cols);
+            gameModel.initializeGame(board, ghosts);
+            gameView.initializeGameTable(board.getRows(), board.getCols());
             gameView.addKeyListener(this);
 
             if (menuView != null) {
@@ -48,7 +115,8 @@ public class GameController implements KeyListener {
             gameView.showGame();
             gameRunning = true;
 
-            threadManager.startGameThreads(gameModel, gameView);
+            threadManager.startGameThreads(gameModel);
+            gameView.setAnimationRunning(true);
 
         } catch (Exception e) {
             JOptionPane.showMessageDialog(
@@ -83,6 +151,7 @@ public class GameController implements KeyListener {
     public void stopCurrentGame() {
         gameRunning = false;
         threadManager.stopAllThreads();
+        gameView.setAnimationRunning(false);
 
         if (gameModel != null) {
             gameModel.endGame();
@@ -91,10 +160,12 @@ public class GameController implements KeyListener {
 
     public void pauseGame() {
         threadManager.pauseThreads();
+        gameView.setAnimationRunning(false);
     }
 
     public void resumeGame() {
         threadManager.resumeThreads();
+        gameView.setAnimationRunning(true);
     }
 
     public void saveHighScore(String playerName, int score) {
@@ -201,6 +272,7 @@ public class GameController implements KeyListener {
     public void shutdown() {
         stopCurrentGame();
         threadManager.shutdown();
+        boardSupply.shutdown();
         highScoreManager.saveScores();
     }
 
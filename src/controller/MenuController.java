@@ -34,6 +34,14 @@ public class MenuController {
         gameController.startNewGame(rows, cols);
     }
 
+    public void startNewGame(int rows, int cols, boolean endless) {
+        gameController.startNewGame(rows, cols, endless);
+    }
+
+    public void startNewGame(int rows, int cols, boolean endless, int ghosts) {
+        gameController.startNewGame(rows, cols, endless, ghosts);
+    }
+
     public void showHighScores() {
         menuView.hideMenu();
         highScoreView.showHighScores();
@@ -0,0 +1,122 @@
+package model;
+
+import java.util.Map;
+
+public final class BoardSnapshot {
+
+    private static final Cell.CellType[] CELL_TYPES = Cell.CellType.values();
+
+    public interface CellVisitor {
+        void visit(int row, int col);
+    }
+
+    private final long boardId;
+    private final long version;
+    private final int rows;
+    private final int cols;
+    private final int pageRows;
+    private final int pageCols;
+    // Strony [wiersz stron][kolumna stron]; niezmienione strony i wiersze stron są współdzielone
+    // z poprzednią wersją. Brak strony (null) oznacza teren spoza pamięci - rysowany jako ściana.
+    private final byte[][][] pages;
+    private final Map<Integer, PowerUp> powerUps;
+    private final int[] changedCells;
+    private final boolean pagesReplaced;
+
+    BoardSnapshot(long boardId, long version, int rows, int cols, int pageRows, int pageCols,
+                  byte[][][] pages, Map<Integer, PowerUp> powerUps, int[] changedCells, boolean pagesReplaced) {
+        this.boardId = boardId;
+        this.version = version;
+        this.rows = rows;
+        this.cols = cols;
+        this.pageRows = pageRows;
+        this.pageCols = pageCols;
+        this.pages = pages;
+        this.powerUps = powerUps;
+        this.changedCells = changedCells;
+        this.pagesReplaced = pagesReplaced;
+    }
+
+    public long getBoardId() { return boardId; }
+    public long getVersion() { return version; }
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+
+    public boolean isSuccessorOf(BoardSnapshot other) {
+        return other != null && other.boardId == boardId && other.version + 1 == version;
+    }
+
+    public boolean isValidPosition(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    private byte typeAt(int row, int col) {
+        byte[] page = pages[row / pageRows][col / pageCols];
+        if (page == null) {
+            return GameBoard.WALL;
+        }
+        return page[(row % pageRows) * pageCols + col % pageCols];
+    }
+
+    public Cell.CellType getCellType(int row, int col) {
+        return isValidPosition(row, col) ? CELL_TYPES[typeAt(row, col)] : Cell.CellType.WALL;
+    }
+
+    public PowerUp getPowerUp(int row, int col) {
+        return isValidPosition(row, col) ? powerUps.get(row * cols + col) : null;
+    }
+
+    public Cell getCell(int row, int col) {
+        if (!isValidPosition(row, col)) {
+            return null;
+        }
+        return Cell.of(CELL_TYPES[typeAt(row, col)], powerUps.get(row * cols + col), -1);
+    }
+
+    byte[][][] copyPageTable() { return pages.clone(); }
+    byte[][] pageRow(int pageRow) { return pages[pageRow]; }
+    Map<Integer, PowerUp> powerUps() { return powerUps; }
+
+    public int getChangedCount() {
+        return changedCells.length;
+    }
+
+    public int getChangedCell(int i) {
+        return changedCells[i];
+    }
+
+    // Odwiedza pola różniące się od previous (ta sama plansza). Dla kolejnej wersji wystarcza
+    // lista zmian; po pominiętych wersjach porównywane są tylko strony o innej tożsamości.
+    public void visitChangedCells(BoardSnapshot previous, CellVisitor visitor) {
+        if (isSuccessorOf(previous) && !pagesReplaced) {
+            for (int index : changedCells) {
+                visitor.visit(index / cols, index % cols);
+            }
+            return;
+        }
+
+        for (int pageRow = 0; pageRow < pages.length; pageRow++) {
+            if (pages[pageRow] == previous.pages[pageRow]) {
+                continue;
+            }
+            for (int pageCol = 0; pageCol < pages[pageRow].length; pageCol++) {
+                if (pages[pageRow][pageCol] != previous.pages[pageRow][pageCol]) {
+                    visitChangedPageCells(previous, pageRow, pageCol, visitor);
+                }
+            }
+        }
+    }
+
+    private void visitChangedPageCells(BoardSnapshot previous, int pageRow, int pageCol, CellVisitor visitor) {
+        int lastRow = Math.min(rows, (pageRow + 1) * pageRows);
+        int lastCol = Math.min(cols, (pageCol + 1) * pageCols);
+        for (int row = pageRow * pageRows; row < lastRow; row++) {
+            for (int col = pageCol * pageCols; col < lastCol; col++) {
+                if (typeAt(row, col) != previous.typeAt(row, col)
+                        || getPowerUp(row, col) != previous.getPowerUp(row, col)) {
+                    visitor.visit(row, col);
+                }
+            }
+        }
+    }
+}
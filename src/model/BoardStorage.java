@@ -0,0 +1,30 @@
+package model;
+
+import java.io.Serializable;
+
+// Przechowywanie typów pól planszy; indeks pola = row * cols + col.
+// Dane są podzielone na strony (wiersze albo kawałki), które kopiuje BoardSnapshot.
+interface BoardStorage extends Serializable {
+
+    interface PageListener {
+        void pageLoaded(int pageRow, int pageCol, byte[] page, boolean firstLoad);
+        void pageEvicted(int pageRow, int pageCol, byte[] page);
+    }
+
+    byte get(int index);
+
+    void set(int index, byte type);
+
+    boolean isPassable(int index);
+
+    int getNeighborMask(int index);
+
+    int getPageRows();
+
+    int getPageCols();
+
+    // Kopia strony albo null, jeśli strona nie jest w pamięci (nie generuje jej)
+    byte[] copyPage(int pageRow, int pageCol);
+
+    boolean isChunked();
+}
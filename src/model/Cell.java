@@ -9,41 +9,61 @@ public class Cell implements Serializable {
         EMPTY, WALL, DOT, POWER_PELLET, PACMAN, GHOST, POWERUP
     }
 
-    private CellType type;
-    private boolean hasBeenVisited;
-    private PowerUp powerUp;
-    private int ghostId;
+    // Współdzielone komórki bez własnego stanu - po jednej na typ
+    private static final Cell[] SHARED = createShared();
+
+    // Cell jest tylko widokiem (read-only) - stan planszy trzyma GameBoard
+    private final CellType type;
+    private final PowerUp powerUp;
+    private final int ghostId;
 
     public Cell(CellType type) {
-        this.type = type;
-        this.hasBeenVisited = false;
-        this.powerUp = null;
-        this.ghostId = -1;
+        this(type, null, -1);
+    }
+
+    public Cell(CellType type, PowerUp powerUp, int ghostId) {
+        this.type = powerUp != null ? CellType.POWERUP : type;
+        this.powerUp = powerUp;
+        this.ghostId = ghostId;
     }
 
     public Cell(Cell other) {
         this.type = other.type;
-        this.hasBeenVisited = other.hasBeenVisited;
         this.powerUp = other.powerUp;
         this.ghostId = other.ghostId;
     }
 
-    public CellType getType() { return type; }
-    public void setType(CellType type) { this.type = type; }
+    private static Cell[] createShared() {
+        CellType[] types = CellType.values();
+        Cell[] shared = new Cell[types.length];
+        for (CellType type : types) {
+            shared[type.ordinal()] = new Cell(type);
+        }
+        return shared;
+    }
 
-    public boolean hasBeenVisited() { return hasBeenVisited; }
-    public void setVisited(boolean visited) { this.hasBeenVisited = visited; }
+    public static Cell of(CellType type) {
+        return SHARED[type.ordinal()];
+    }
 
-    public PowerUp getPowerUp() { return powerUp; }
-    public void setPowerUp(PowerUp powerUp) {
-        this.powerUp = powerUp;
-        if (powerUp != null) {
-            this.type = CellType.POWERUP;
+    // Nowy obiekt powstaje tylko dla komórki z power-upem albo duchem
+    public static Cell of(CellType type, PowerUp powerUp, int ghostId) {
+        if (powerUp == null && ghostId < 0) {
+            return SHARED[type.ordinal()];
         }
+        return new Cell(type, powerUp, ghostId);
     }
 
+    // Po deserializacji zwykła komórka wraca do współdzielonej instancji, zamiast się powielać
+    private Object readResolve() {
+        return of(type, powerUp, ghostId);
+    }
+
+    public CellType getType() { return type; }
+
+    public PowerUp getPowerUp() { return powerUp; }
+
     public int getGhostId() { return ghostId; }
-    public void setGhostId(int ghostId) { this.ghostId = ghostId; }
 
     public boolean isPassable() {
         return type != CellType.WALL;
@@ -53,15 +73,8 @@ public class Cell implements Serializable {
         return type == CellType.DOT || type == CellType.POWER_PELLET || type == CellType.POWERUP;
     }
 
-    public void clear() {
-        if (type == CellType.DOT || type == CellType.POWER_PELLET || type == CellType.POWERUP) {
-            this.type = CellType.EMPTY;
-            this.powerUp = null;
-        }
-    }
-
     @Override
     public String toString() {
         return type.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,240 @@
+package model;
+
+import utils.ChunkMazeGenerator;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Plansza w kawałkach CHUNK_SIZE x CHUNK_SIZE generowanych na żądanie z ziarna.
+// W pamięci trzymanych jest najwyżej maxResidentChunks kawałków (LRU). Przy wyrzuceniu
+// zmienionego kawałka zostaje tylko różnica względem wygenerowanego ponownie (encodeDiff),
+// niezmienione kawałki są po prostu generowane od nowa.
+class ChunkedBoardStorage implements BoardStorage {
+    private static final long serialVersionUID = 1L;
+
+    static final int CHUNK_SIZE = 32;
+    static final int DEFAULT_RESIDENT_CHUNKS = 512;
+
+    // Różnica: maska zmienionych pól (bit na pole), po niej nowe wartości tych pól w kolejności.
+    // Gdy wszystkie zmiany to EMPTY (zjedzone kropki) - sama maska.
+    private static final int CHUNK_CELLS = CHUNK_SIZE * CHUNK_SIZE;
+    private static final int DIFF_MASK_BYTES = CHUNK_CELLS / 8;
+
+    private static final class Chunk implements java.io.Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final int id;
+        final byte[] cells;
+        // Bit na pole zmienione od wygenerowania; null - kawałek niezmieniony
+        long[] changed;
+
+        Chunk(int id, byte[] cells, long[] changed) {
+            this.id = id;
+            this.cells = cells;
+            this.changed = changed;
+        }
+    }
+
+    private final int rows;
+    private final int cols;
+    private final int chunkCols;
+    private final int maxResidentChunks;
+    private final ChunkMazeGenerator generator;
+    private final LinkedHashMap<Integer, Chunk> resident;
+    private final Map<Integer, byte[]> spilled;
+    private final BitSet generated;
+    private transient PageListener listener;
+
+    private int lastChunkId;
+    private Chunk lastChunk;
+
+    ChunkedBoardStorage(int rows, int cols, long seed, int maxResidentChunks, PageListener listener) {
+        this.rows = rows;
+        this.cols = cols;
+        this.chunkCols = (cols + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.maxResidentChunks = maxResidentChunks;
+        this.generator = new ChunkMazeGenerator(rows, cols, CHUNK_SIZE, seed);
+        this.resident = new LinkedHashMap<>(maxResidentChunks * 2, 0.75f, true);
+        this.spilled = new HashMap<>();
+        this.generated = new BitSet();
+        this.listener = listener;
+        this.lastChunkId = -1;
+        this.lastChunk = null;
+    }
+
+    private int chunkIdOf(int index) {
+        int row = index / cols;
+        int col = index % cols;
+        return (row / CHUNK_SIZE) * chunkCols + col / CHUNK_SIZE;
+    }
+
+    private int offsetOf(int index) {
+        int row = index / cols;
+        int col = index % cols;
+        return (row % CHUNK_SIZE) * CHUNK_SIZE + col % CHUNK_SIZE;
+    }
+
+    private Chunk chunkFor(int index) {
+        int id = chunkIdOf(index);
+        if (id == lastChunkId) {
+            return lastChunk;
+        }
+
+        Chunk chunk = resident.get(id);
+        if (chunk == null) {
+            chunk = load(id);
+        }
+        lastChunkId = id;
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    private Chunk load(int id) {
+        byte[] cells = generator.generateChunk(id / chunkCols, id % chunkCols);
+        byte[] diff = spilled.remove(id);
+        long[] changed = diff != null ? applyDiff(cells, diff) : null;
+
+        boolean firstLoad = !generated.get(id);
+        generated.set(id);
+
+        Chunk chunk = new Chunk(id, cells, changed);
+        resident.put(id, chunk);
+        evictColdChunks(id);
+
+        if (listener != null) {
+            listener.pageLoaded(id / chunkCols, id % chunkCols, cells, firstLoad);
+        }
+        return chunk;
+    }
+
+    private void evictColdChunks(int keepId) {
+        Iterator<Chunk> iterator = resident.values().iterator();
+        while (resident.size() > maxResidentChunks && iterator.hasNext()) {
+            Chunk eldest = iterator.next();
+            if (eldest.id == keepId) {
+                continue;
+            }
+            iterator.remove();
+
+            if (eldest.changed != null) {
+                spilled.put(eldest.id, encodeDiff(eldest.cells, eldest.changed));
+            }
+            if (eldest.id == lastChunkId) {
+                lastChunkId = -1;
+                lastChunk = null;
+            }
+            if (listener != null) {
+                listener.pageEvicted(eldest.id / chunkCols, eldest.id % chunkCols, eldest.cells);
+            }
+        }
+    }
+
+    private static boolean isChanged(long[] changed, int offset) {
+        return (changed[offset >> 6] & (1L << offset)) != 0;
+    }
+
+    private static byte[] encodeDiff(byte[] cells, long[] changed) {
+        byte[] diff = new byte[DIFF_MASK_BYTES];
+        int count = 0;
+        boolean onlyEmptied = true;
+        for (int offset = 0; offset < CHUNK_CELLS; offset++) {
+            if (isChanged(changed, offset)) {
+                diff[offset >> 3] |= (byte) (1 << (offset & 7));
+                count++;
+                onlyEmptied &= cells[offset] == GameBoard.EMPTY;
+            }
+        }
+        if (onlyEmptied) {
+            return diff;
+        }
+
+        diff = Arrays.copyOf(diff, DIFF_MASK_BYTES + count);
+        int position = DIFF_MASK_BYTES;
+        for (int offset = 0; offset < CHUNK_CELLS; offset++) {
+            if (isChanged(changed, offset)) {
+                diff[position++] = cells[offset];
+            }
+        }
+        return diff;
+    }
+
+    // Nakłada różnicę na świeżo wygenerowany kawałek i odtwarza maskę zmian
+    private static long[] applyDiff(byte[] cells, byte[] diff) {
+        long[] changed = new long[CHUNK_CELLS / 64];
+        boolean onlyEmptied = diff.length == DIFF_MASK_BYTES;
+        int position = DIFF_MASK_BYTES;
+        for (int offset = 0; offset < CHUNK_CELLS; offset++) {
+            if ((diff[offset >> 3] & (1 << (offset & 7))) != 0) {
+                cells[offset] = onlyEmptied ? GameBoard.EMPTY : diff[position++];
+                changed[offset >> 6] |= 1L << offset;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public byte get(int index) {
+        return chunkFor(index).cells[offsetOf(index)];
+    }
+
+    @Override
+    public void set(int index, byte type) {
+        Chunk chunk = chunkFor(index);
+        int offset = offsetOf(index);
+        chunk.cells[offset] = type;
+        if (chunk.changed == null) {
+            chunk.changed = new long[CHUNK_CELLS / 64];
+        }
+        chunk.changed[offset >> 6] |= 1L << offset;
+    }
+
+    @Override
+    public boolean isPassable(int index) {
+        return get(index) != GameBoard.WALL;
+    }
+
+    // Maska liczona na bieżąco - trzymanie jej dla całej planszy przeczyłoby idei kawałków
+    @Override
+    public int getNeighborMask(int index) {
+        int row = index / cols;
+        int col = index % cols;
+        int mask = 0;
+        if (row > 0 && isPassable(index - cols)) mask |= 1 << Player.Direction.UP.ordinal();
+        if (row < rows - 1 && isPassable(index + cols)) mask |= 1 << Player.Direction.DOWN.ordinal();
+        if (col > 0 && isPassable(index - 1)) mask |= 1 << Player.Direction.LEFT.ordinal();
+        if (col < cols - 1 && isPassable(index + 1)) mask |= 1 << Player.Direction.RIGHT.ordinal();
+        return mask;
+    }
+
+    @Override
+    public int getPageRows() {
+        return CHUNK_SIZE;
+    }
+
+    @Override
+    public int getPageCols() {
+        return CHUNK_SIZE;
+    }
+
+    @Override
+    public byte[] copyPage(int pageRow, int pageCol) {
+        Chunk chunk = resident.get(pageRow * chunkCols + pageCol);
+        return chunk != null ? chunk.cells.clone() : null;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    int getResidentChunkCount() {
+        return resident.size();
+    }
+
+    int getSpilledChunkCount() {
+        return spilled.size();
+    }
+}
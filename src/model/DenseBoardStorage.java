@@ -0,0 +1,107 @@
+package model;
+
+import java.util.Arrays;
+
+// Cała plansza w jednym byte[]; stroną jest jeden wiersz
+class DenseBoardStorage implements BoardStorage {
+    private static final long serialVersionUID = 1L;
+
+    private final int rows;
+    private final int cols;
+    private final byte[] cells;
+    // Przechodniość pól jako bitset i 4-bitowa maska przechodnich sąsiadów (bit = Direction.ordinal())
+    private final long[] passable;
+    private final byte[] neighborMask;
+
+    DenseBoardStorage(int rows, int cols, byte[] cells) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = cells;
+        this.passable = new long[(cells.length + 63) >>> 6];
+        this.neighborMask = new byte[cells.length];
+        buildPassability();
+    }
+
+    private void buildPassability() {
+        for (int index = 0; index < cells.length; index++) {
+            if (cells[index] != GameBoard.WALL) {
+                passable[index >>> 6] |= 1L << index;
+            }
+        }
+        for (int index = 0; index < cells.length; index++) {
+            updateNeighborMask(index);
+        }
+    }
+
+    private void updateNeighborMask(int index) {
+        int row = index / cols;
+        int col = index % cols;
+        int mask = 0;
+        if (row > 0 && isPassable(index - cols)) mask |= 1 << Player.Direction.UP.ordinal();
+        if (row < rows - 1 && isPassable(index + cols)) mask |= 1 << Player.Direction.DOWN.ordinal();
+        if (col > 0 && isPassable(index - 1)) mask |= 1 << Player.Direction.LEFT.ordinal();
+        if (col < cols - 1 && isPassable(index + 1)) mask |= 1 << Player.Direction.RIGHT.ordinal();
+        neighborMask[index] = (byte) mask;
+    }
+
+    // Zmiana ściany przelicza bit pola i maski jego czterech sąsiadów
+    private void updatePassability(int index, boolean isOpen) {
+        if (isOpen) {
+            passable[index >>> 6] |= 1L << index;
+        } else {
+            passable[index >>> 6] &= ~(1L << index);
+        }
+
+        int row = index / cols;
+        int col = index % cols;
+        updateNeighborMask(index);
+        if (row > 0) updateNeighborMask(index - cols);
+        if (row < rows - 1) updateNeighborMask(index + cols);
+        if (col > 0) updateNeighborMask(index - 1);
+        if (col < cols - 1) updateNeighborMask(index + 1);
+    }
+
+    @Override
+    public byte get(int index) {
+        return cells[index];
+    }
+
+    @Override
+    public void set(int index, byte type) {
+        boolean wallChanged = (type == GameBoard.WALL) != (cells[index] == GameBoard.WALL);
+        cells[index] = type;
+        if (wallChanged) {
+            updatePassability(index, type != GameBoard.WALL);
+        }
+    }
+
+    @Override
+    public boolean isPassable(int index) {
+        return (passable[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public int getNeighborMask(int index) {
+        return neighborMask[index];
+    }
+
+    @Override
+    public int getPageRows() {
+        return 1;
+    }
+
+    @Override
+    public int getPageCols() {
+        return cols;
+    }
+
+    @Override
+    public byte[] copyPage(int pageRow, int pageCol) {
+        return Arrays.copyOfRange(cells, pageRow * cols, (pageRow + 1) * cols);
+    }
+
+    @Override
+    public boolean isChunked() {
+        return false;
+    }
+}
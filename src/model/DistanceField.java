@@ -0,0 +1,173 @@
+package model;
+
+import java.util.Arrays;
+
+// Odległości (BFS po ścianach) od jednego pola do wszystkich pól w oknie wokół niego.
+// Liczone raz na tick dla wszystkich duchów i tylko gdy źródło zmieni pole albo zmienią się ściany;
+// bufory rosną do rozmiaru okna (najwyżej 2*radius+1 na bok, mniej na małej planszy),
+// potem przeliczenie niczego nie alokuje.
+public class DistanceField {
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    public static final int DEFAULT_RADIUS = 128;
+
+    private static final Player.Direction[] DIRECTIONS = Player.Direction.values();
+
+    private final int radius;
+    // Wartość w distances jest ważna tylko gdy stamps[pole] == stamp - bez czyszczenia tablic
+    private int[] distances;
+    private int[] stamps;
+    private int[] queue;
+    private int stamp;
+
+    private GameBoard board;
+    private int wallVersion;
+    private int sourceIndex;
+    private int top;
+    private int left;
+    private int height;
+    private int width;
+
+    public DistanceField() {
+        this(DEFAULT_RADIUS);
+    }
+
+    public DistanceField(int radius) {
+        this.radius = radius;
+        this.distances = new int[0];
+        this.stamps = new int[0];
+        this.queue = new int[0];
+        this.stamp = 0;
+        this.sourceIndex = -1;
+    }
+
+    // Zwraca true, gdy pole zostało przeliczone
+    public boolean update(GameBoard board, int row, int col) {
+        int index = board.indexOf(row, col);
+        if (board == this.board && index == sourceIndex && board.getWallVersion() == wallVersion) {
+            return false;
+        }
+
+        this.board = board;
+        this.wallVersion = board.getWallVersion();
+        this.sourceIndex = index;
+        this.top = Math.max(0, row - radius);
+        this.left = Math.max(0, col - radius);
+        this.height = Math.min(board.getRows(), row + radius + 1) - top;
+        this.width = Math.min(board.getCols(), col + radius + 1) - left;
+        ensureCapacity(height * width);
+        nextStamp();
+        search(row, col);
+        return true;
+    }
+
+    public void invalidate() {
+        this.board = null;
+        this.sourceIndex = -1;
+    }
+
+    private void ensureCapacity(int cells) {
+        if (cells > stamps.length) {
+            distances = new int[cells];
+            stamps = new int[cells];
+            queue = new int[cells];
+        }
+    }
+
+    private void nextStamp() {
+        stamp++;
+        if (stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+    }
+
+    private void search(int row, int col) {
+        int head = 0;
+        int tail = 0;
+        int start = local(row, col);
+        stamps[start] = stamp;
+        distances[start] = 0;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int current = queue[head++];
+            int currentRow = top + current / width;
+            int currentCol = left + current % width;
+            int mask = board.getNeighborMask(board.indexOf(currentRow, currentCol));
+            int nextDistance = distances[current] + 1;
+
+            for (int bit = 0; bit < DIRECTIONS.length; bit++) {
+                if ((mask & (1 << bit)) == 0) {
+                    continue;
+                }
+                int nextRow = currentRow + deltaRow(bit);
+                int nextCol = currentCol + deltaCol(bit);
+                if (!inWindow(nextRow, nextCol)) {
+                    continue;
+                }
+                int next = local(nextRow, nextCol);
+                if (stamps[next] != stamp) {
+                    stamps[next] = stamp;
+                    distances[next] = nextDistance;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    private static int deltaRow(int bit) {
+        return bit == 0 ? -1 : bit == 1 ? 1 : 0;
+    }
+
+    private static int deltaCol(int bit) {
+        return bit == 2 ? -1 : bit == 3 ? 1 : 0;
+    }
+
+    private boolean inWindow(int row, int col) {
+        return row >= top && row < top + height && col >= left && col < left + width;
+    }
+
+    private int local(int row, int col) {
+        return (row - top) * width + (col - left);
+    }
+
+    // O(1); UNREACHABLE poza oknem, w ścianie albo bez drogi do źródła
+    public int distanceAt(int row, int col) {
+        if (board == null || !inWindow(row, col)) {
+            return UNREACHABLE;
+        }
+        int index = local(row, col);
+        return stamps[index] == stamp ? distances[index] : UNREACHABLE;
+    }
+
+    // Kierunek z pola (row, col) o najmniejszej (toward) albo największej odległości od źródła;
+    // null, gdy żaden otwarty sąsiad nie ma znanej odległości
+    public Player.Direction bestStep(int row, int col, boolean toward) {
+        if (board == null || !board.isValidPosition(row, col)) {
+            return null;
+        }
+        int mask = board.getNeighborMask(board.indexOf(row, col));
+        Player.Direction best = null;
+        int bestDistance = 0;
+
+        for (int bit = 0; bit < DIRECTIONS.length; bit++) {
+            if ((mask & (1 << bit)) == 0) {
+                continue;
+            }
+            int distance = distanceAt(row + deltaRow(bit), col + deltaCol(bit));
+            if (distance == UNREACHABLE) {
+                continue;
+            }
+            if (best == null || (toward ? distance < bestDistance : distance > bestDistance)) {
+                best = DIRECTIONS[bit];
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    public int getSourceIndex() {
+        return sourceIndex;
+    }
+}
@@ -0,0 +1,152 @@
+package model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+// Indeks zajętości pól przez postacie - leży obok planszy i nie zmienia jej komórek
+public class EntityLayer implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int NONE = -1;
+
+    private int pacmanCell;
+    // Duchy na jednym polu tworzą listę: cellHead[pole] -> id, nextInCell[id] -> id.
+    // Głowy list w tablicy dla zwykłych plansz, w mapie bez pudełkowania dla plansz w kawałkach
+    private final int[] cellHead;
+    private final IntIntMap sparseHead;
+    private int[] ghostCell;
+    private int[] nextInCell;
+
+    public EntityLayer(int capacity) {
+        this(new int[capacity], null);
+        Arrays.fill(cellHead, NONE);
+    }
+
+    private EntityLayer(int[] cellHead, IntIntMap sparseHead) {
+        this.pacmanCell = NONE;
+        this.cellHead = cellHead;
+        this.sparseHead = sparseHead;
+        this.ghostCell = new int[0];
+        this.nextInCell = new int[0];
+    }
+
+    // Pamięć zależy od liczby zajętych pól, a nie od rozmiaru planszy
+    public static EntityLayer sparse() {
+        return new EntityLayer(null, new IntIntMap());
+    }
+
+    private int headAt(int index) {
+        if (cellHead != null) {
+            return cellHead[index];
+        }
+        return sparseHead.get(index);
+    }
+
+    private void setHead(int index, int ghostId) {
+        if (cellHead != null) {
+            cellHead[index] = ghostId;
+        } else if (ghostId == NONE) {
+            sparseHead.remove(index);
+        } else {
+            sparseHead.put(index, ghostId);
+        }
+    }
+
+    public void placePacman(int index) {
+        pacmanCell = index;
+    }
+
+    public int getPacmanCell() {
+        return pacmanCell;
+    }
+
+    public boolean hasPacman(int index) {
+        return pacmanCell == index;
+    }
+
+    public void placeGhost(int ghostId, int index) {
+        ensureCapacity(ghostId);
+        if (ghostCell[ghostId] == index) {
+            return;
+        }
+        unlink(ghostId);
+        link(ghostId, index);
+    }
+
+    public void removeGhost(int ghostId) {
+        if (ghostId < ghostCell.length) {
+            unlink(ghostId);
+        }
+    }
+
+    public int getGhostCell(int ghostId) {
+        return ghostId < ghostCell.length ? ghostCell[ghostId] : NONE;
+    }
+
+    public int getGhostAt(int index) {
+        return headAt(index);
+    }
+
+    // Następny duch na tym samym polu albo NONE
+    public int getNextGhostInCell(int ghostId) {
+        return nextInCell[ghostId];
+    }
+
+    public boolean isOccupied(int index) {
+        return pacmanCell == index || headAt(index) != NONE;
+    }
+
+    public void clear() {
+        pacmanCell = NONE;
+        if (cellHead != null) {
+            for (int index : ghostCell) {
+                if (index != NONE) {
+                    cellHead[index] = NONE;
+                }
+            }
+        } else {
+            sparseHead.clear();
+        }
+        Arrays.fill(ghostCell, NONE);
+        Arrays.fill(nextInCell, NONE);
+    }
+
+    private void link(int ghostId, int index) {
+        nextInCell[ghostId] = headAt(index);
+        setHead(index, ghostId);
+        ghostCell[ghostId] = index;
+    }
+
+    private void unlink(int ghostId) {
+        int index = ghostCell[ghostId];
+        if (index == NONE) {
+            return;
+        }
+
+        int head = headAt(index);
+        if (head == ghostId) {
+            setHead(index, nextInCell[ghostId]);
+        } else {
+            int previous = head;
+            while (nextInCell[previous] != ghostId) {
+                previous = nextInCell[previous];
+            }
+            nextInCell[previous] = nextInCell[ghostId];
+        }
+
+        ghostCell[ghostId] = NONE;
+        nextInCell[ghostId] = NONE;
+    }
+
+    private void ensureCapacity(int ghostId) {
+        if (ghostId < ghostCell.length) {
+            return;
+        }
+        int oldLength = ghostCell.length;
+        int newLength = Math.max(ghostId + 1, oldLength * 2);
+        ghostCell = Arrays.copyOf(ghostCell, newLength);
+        nextInCell = Arrays.copyOf(nextInCell, newLength);
+        Arrays.fill(ghostCell, oldLength, newLength, NONE);
+        Arrays.fill(nextInCell, oldLength, newLength, NONE);
+    }
+}
@@ -0,0 +1,119 @@
+package model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+import java.util.function.IntPredicate;
+
+// Zbiór indeksów pustych pól: dodawanie, usuwanie i losowanie w O(1)
+public class FreeCellIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int ABSENT = -1;
+
+    private int[] cells;
+    private int size;
+    // Pozycja pola w cells: tablica dla zwykłych plansz, mapa dla plansz w kawałkach
+    private final int[] slotOf;
+    private final IntIntMap sparseSlots;
+
+    public FreeCellIndex(int capacity) {
+        this.cells = new int[16];
+        this.size = 0;
+        this.slotOf = new int[capacity];
+        this.sparseSlots = null;
+        Arrays.fill(slotOf, ABSENT);
+    }
+
+    private FreeCellIndex() {
+        this.cells = new int[16];
+        this.size = 0;
+        this.slotOf = null;
+        this.sparseSlots = new IntIntMap();
+    }
+
+    // Pamięć zależy od liczby pustych pól, a nie od rozmiaru planszy
+    public static FreeCellIndex sparse() {
+        return new FreeCellIndex();
+    }
+
+    private int slotOf(int index) {
+        if (slotOf != null) {
+            return slotOf[index];
+        }
+        int slot = sparseSlots.get(index);
+        return slot != IntIntMap.MISSING ? slot : ABSENT;
+    }
+
+    private void setSlot(int index, int slot) {
+        if (slotOf != null) {
+            slotOf[index] = slot;
+        } else if (slot == ABSENT) {
+            sparseSlots.remove(index);
+        } else {
+            sparseSlots.put(index, slot);
+        }
+    }
+
+    public void add(int index) {
+        if (slotOf(index) != ABSENT) {
+            return;
+        }
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, size * 2);
+        }
+        cells[size] = index;
+        setSlot(index, size);
+        size++;
+    }
+
+    // Usunięcie przez przeniesienie ostatniego elementu w zwolnione miejsce
+    public void remove(int index) {
+        int slot = slotOf(index);
+        if (slot == ABSENT) {
+            return;
+        }
+        int last = cells[--size];
+        cells[slot] = last;
+        setSlot(last, slot);
+        setSlot(index, ABSENT);
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            setSlot(cells[i], ABSENT);
+        }
+        size = 0;
+    }
+
+    public boolean contains(int index) {
+        return slotOf(index) != ABSENT;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int i) {
+        return cells[i];
+    }
+
+    public int sample(RandomGenerator random) {
+        return size == 0 ? ABSENT : cells[random.nextInt(size)];
+    }
+
+    // Losowanie z odrzucaniem: najwyżej maxAttempts prób, -1 gdy nic nie pasuje
+    public int sample(RandomGenerator random, int maxAttempts, IntPredicate accept) {
+        for (int attempt = 0; attempt < maxAttempts && size > 0; attempt++) {
+            int index = cells[random.nextInt(size)];
+            if (accept.test(index)) {
+                return index;
+            }
+        }
+        return ABSENT;
+    }
+}
@@ -1,42 +1,291 @@
 package model;
 
+import utils.EllerMazeGenerator;
+import utils.MazeAlgorithm;
 import utils.MazeGenerator;
+import utils.MazeStats;
+import utils.ParallelMazeGenerator;
+import utils.RandomStreams;
 import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class GameBoard implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    private Cell[][] board;
+    private static final Cell.CellType[] CELL_TYPES = Cell.CellType.values();
+    private static final AtomicLong NEXT_BOARD_ID = new AtomicLong();
+
+    public static final byte EMPTY = (byte) Cell.CellType.EMPTY.ordinal();
+    public static final byte WALL = (byte) Cell.CellType.WALL.ordinal();
+    public static final byte DOT = (byte) Cell.CellType.DOT.ordinal();
+    public static final byte POWER_PELLET = (byte) Cell.CellType.POWER_PELLET.ordinal();
+    public static final byte PACMAN = (byte) Cell.CellType.PACMAN.ordinal();
+    public static final byte GHOST = (byte) Cell.CellType.GHOST.ordinal();
+    public static final byte POWERUP = (byte) Cell.CellType.POWERUP.ordinal();
+
+    // Powyżej tej liczby pól plansza jest generowana kawałkami na żądanie
+    public static final long CHUNKED_BOARD_CELLS = 1_000_000L;
+    // Od tej liczby pól labirynt jest generowany równolegle w kafelkach
+    public static final long PARALLEL_GENERATION_CELLS = 250_000L;
+    private static final int NEAREST_CELL_SEARCH_LIMIT = 1 << 16;
+
+    // Typy pól (struct-of-arrays) w jednym byte[] albo w kawałkach; rzadkie dane w mapach
+    private final BoardStorage storage;
+    // Tylko w trybie bez końca: okno przewijane w dół po labiryncie generowanym wierszami
+    private final ScrollingBoardStorage scrollingStorage;
+    private final Map<Integer, PowerUp> powerUps;
+    // Postacie są w osobnej warstwie - plansza przechowuje tylko teren i znajdźki
+    private final EntityLayer entities;
+    // Puste pola wewnątrz planszy - aktualizowane przy każdej zmianie typu
+    private final FreeCellIndex freeCells;
+    private final int[] neighborOffset;
+    private int wallVersion;
+    // Komórki zmienione od ostatniego drainChanges(): bitset + lista w kolejności zmian
+    private final BitSet dirtyCells;
+    private int[] changeList;
+    private int changeCount;
+    private boolean payloadsChanged;
+    // Strony wczytane albo wyrzucone z pamięci od ostatniej wersji (tylko plansze w kawałkach)
+    private final Set<Integer> replacedPages;
+    private transient BoardSnapshot lastSnapshot;
+    // Graf skrzyżowań budowany przy pierwszym użyciu i po każdej zmianie ścian (tylko plansze w pamięci)
+    private transient JunctionGraph junctionGraph;
+    private transient int junctionGraphVersion;
+    private final long boardId;
+    // Ziarno gry - z niego pochodzi labirynt i strumienie losowe modelu grającego na tej planszy
+    private final long seed;
     private final int rows;
     private final int cols;
     private int[] pacmanStartPosition;
     private int[] ghostSpawnPosition;
     private int totalDots;
     private int collectedDots;
+    // Pomiar generacji labiryntu; null dla generatora równoległego, plansz w kawałkach i bez końca
+    private transient MazeStats mazeStats;
 
     public GameBoard(int rows, int cols) {
+        this(rows, cols, false);
+    }
+
+    public GameBoard(int rows, int cols, boolean endless) {
+        this(rows, cols, endless, null, 0, RandomStreams.newSeed());
+    }
+
+    // Ten sam seed daje ten sam labirynt (i te same losowania w grze na tej planszy)
+    public GameBoard(int rows, int cols, boolean endless, long seed) {
+        this(rows, cols, endless, null, 0, seed);
+    }
+
+    // Labirynt z wybranego algorytmu; braidRatio - jaka część ślepych zaułków dostaje drugie wyjście.
+    // Plansze w kawałkach mają własny generator i ignorują oba parametry.
+    public GameBoard(int rows, int cols, MazeAlgorithm algorithm, double braidRatio) {
+        this(rows, cols, false, algorithm, braidRatio, RandomStreams.newSeed());
+    }
+
+    public GameBoard(int rows, int cols, MazeAlgorithm algorithm, double braidRatio, long seed) {
+        this(rows, cols, false, algorithm, braidRatio, seed);
+    }
+
+    private GameBoard(int rows, int cols, boolean endless, MazeAlgorithm algorithm, double braidRatio, long seed) {
+        this.boardId = NEXT_BOARD_ID.incrementAndGet();
+        this.seed = seed;
+        long mazeSeed = new RandomStreams(seed).seedFor(RandomStreams.Stream.MAZE);
         this.rows = rows;
         this.cols = cols;
-        this.board = new Cell[rows][cols];
+        this.powerUps = new HashMap<>();
+        this.entities = !endless && (long) rows * cols > CHUNKED_BOARD_CELLS
+                ? EntityLayer.sparse() : new EntityLayer(rows * cols);
+        this.neighborOffset = new int[]{-cols, cols, -1, 1};
+        this.wallVersion = 0;
+        this.dirtyCells = new BitSet();
+        this.changeList = new int[16];
+        this.changeCount = 0;
+        this.payloadsChanged = true;
+        this.replacedPages = new HashSet<>();
         this.collectedDots = 0;
-        generateBoard();
+
+        if (endless) {
+            this.freeCells = new FreeCellIndex(rows * cols);
+            this.scrollingStorage = new ScrollingBoardStorage(rows, cols, new EllerMazeGenerator(cols, mazeSeed));
+            this.storage = scrollingStorage;
+            indexFreeCells();
+            totalDots = countDots(0, rows * cols);
+            findScrollingStartPositions();
+        } else if ((long) rows * cols > CHUNKED_BOARD_CELLS) {
+            this.scrollingStorage = null;
+            this.freeCells = FreeCellIndex.sparse();
+            this.storage = new ChunkedBoardStorage(rows, cols, mazeSeed,
+                    ChunkedBoardStorage.DEFAULT_RESIDENT_CHUNKS, new PageTracker());
+            findChunkedStartPositions();
+        } else {
+            this.scrollingStorage = null;
+            this.freeCells = new FreeCellIndex(rows * cols);
+            this.storage = generateBoard(algorithm, braidRatio, mazeSeed);
+            indexFreeCells();
+            // Graf powstaje razem z planszą (na wątku generatora), a nie w pierwszym ticku gry
+            this.junctionGraph = JunctionGraph.build(this);
+        }
+    }
+
+    private BoardStorage generateBoard(MazeAlgorithm algorithm, double braidRatio, long mazeSeed) {
+        byte[] cells;
+        if (algorithm == null && braidRatio == 0 && (long) rows * cols >= PARALLEL_GENERATION_CELLS) {
+            cells = new ParallelMazeGenerator(rows, cols, mazeSeed).generateTypes();
+        } else {
+            MazeGenerator generator = algorithm != null
+                    ? new MazeGenerator(rows, cols, mazeSeed, algorithm.createEngine())
+                    : new MazeGenerator(rows, cols, mazeSeed);
+            cells = generator.setBraidRatio(braidRatio).generateTypes();
+            mazeStats = generator.getLastStats();
+        }
+
+        findStartPositions(cells);
+        totalDots = countCells(cells, DOT) + countCells(cells, POWER_PELLET);
+        return new DenseBoardStorage(rows, cols, cells);
     }
 
-    private void generateBoard() {
-        MazeGenerator generator = new MazeGenerator(rows, cols);
-        this.board = generator.generateMaze();
+    private void findChunkedStartPositions() {
+        pacmanStartPosition = findNearestPassable(rows / 2, cols / 2);
+        if (pacmanStartPosition == null) {
+            pacmanStartPosition = new int[]{rows / 2, cols / 2};
+        }
+        ghostSpawnPosition = new int[]{1, 1};
+    }
 
-        findStartPositions();
-        countDots();
+    private void findScrollingStartPositions() {
+        pacmanStartPosition = findNearestPassable(rows / 2, cols / 2);
+        if (pacmanStartPosition == null) {
+            pacmanStartPosition = new int[]{rows / 2, cols / 2};
+        }
+        ghostSpawnPosition = new int[]{1, 1};
     }
 
-    private void findStartPositions() {
+    private int countDots(int from, int to) {
+        int count = 0;
+        for (int index = from; index < to; index++) {
+            byte type = storage.get(index);
+            if (type == DOT || type == POWER_PELLET) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean isEndless() {
+        return scrollingStorage != null;
+    }
+
+    public long getScrolledRows() {
+        return scrollingStorage != null ? scrollingStorage.getScrolledRows() : 0;
+    }
+
+    // Przesuwa okno o count wierszy w dół: górne wiersze są porzucane, na dole pojawiają się nowe.
+    // Indeksy pól się zmieniają, więc warstwa postaci jest czyszczona - wołający ustawia postacie od nowa.
+    public synchronized void scroll(int count) {
+        if (scrollingStorage == null || count <= 0) {
+            return;
+        }
+        count = Math.min(count, rows);
+
+        int shift = count * cols;
+        totalDots -= countDots(0, shift);
+        byte[] buffer = new byte[cols];
+        for (int i = 0; i < count; i++) {
+            scrollingStorage.scrollRow(buffer);
+        }
+        totalDots += countDots(size() - shift, size());
+
+        Map<Integer, PowerUp> shifted = new HashMap<>();
+        for (Map.Entry<Integer, PowerUp> entry : powerUps.entrySet()) {
+            if (entry.getKey() >= shift) {
+                shifted.put(entry.getKey() - shift, entry.getValue());
+            }
+        }
+        powerUps.clear();
+        powerUps.putAll(shifted);
+        payloadsChanged = true;
+
+        freeCells.clear();
+        indexFreeCells();
+        entities.clear();
+        drainChanges();
         for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                if (board[row][col].getType() == Cell.CellType.PACMAN) {
-                    pacmanStartPosition = new int[]{row, col};
-                    board[row][col].setType(Cell.CellType.EMPTY);
+            replacedPages.add(row);
+        }
+        wallVersion++;
+        findScrollingStartPositions();
+    }
+
+    // Utrzymuje indeks pustych pól i licznik kropek dla kawałków wczytywanych i wyrzucanych z pamięci
+    private class PageTracker implements BoardStorage.PageListener, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void pageLoaded(int pageRow, int pageCol, byte[] page, boolean firstLoad) {
+            forEachPageCell(pageRow, pageCol, page, (index, type) -> {
+                if (type == EMPTY && isInterior(index)) {
+                    freeCells.add(index);
+                } else if (firstLoad && (type == DOT || type == POWER_PELLET)) {
+                    totalDots++;
                 }
+            });
+            replacedPages.add(pageRow * pageColumnCount() + pageCol);
+        }
+
+        @Override
+        public void pageEvicted(int pageRow, int pageCol, byte[] page) {
+            forEachPageCell(pageRow, pageCol, page, (index, type) -> {
+                if (type == EMPTY) {
+                    freeCells.remove(index);
+                }
+            });
+            replacedPages.add(pageRow * pageColumnCount() + pageCol);
+        }
+    }
+
+    private interface PageCellVisitor {
+        void visit(int index, byte type);
+    }
+
+    private void forEachPageCell(int pageRow, int pageCol, byte[] page, PageCellVisitor visitor) {
+        int pageRows = storage.getPageRows();
+        int pageCols = storage.getPageCols();
+        for (int offset = 0; offset < page.length; offset++) {
+            int row = pageRow * pageRows + offset / pageCols;
+            int col = pageCol * pageCols + offset % pageCols;
+            if (row < rows && col < cols) {
+                visitor.visit(indexOf(row, col), page[offset]);
+            }
+        }
+    }
+
+    private void indexFreeCells() {
+        for (int index = 0; index < rows * cols; index++) {
+            if (storage.get(index) == EMPTY && isInterior(index)) {
+                freeCells.add(index);
+            }
+        }
+    }
+
+    private boolean isInterior(int index) {
+        int row = index / cols;
+        int col = index % cols;
+        return row > 0 && row < rows - 1 && col > 0 && col < cols - 1;
+    }
+
+    private void findStartPositions(byte[] cells) {
+        for (int index = 0; index < cells.length; index++) {
+            if (cells[index] == PACMAN) {
+                pacmanStartPosition = new int[]{index / cols, index % cols};
+                cells[index] = EMPTY;
             }
         }
 
@@ -47,34 +296,203 @@ public class GameBoard implements Serializable {
         ghostSpawnPosition = new int[]{1, 1};
     }
 
-    private void countDots() {
-        totalDots = 0;
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                Cell.CellType type = board[row][col].getType();
-                if (type == Cell.CellType.DOT || type == Cell.CellType.POWER_PELLET) {
-                    totalDots++;
-                }
+    private static int countCells(byte[] cells, byte type) {
+        int count = 0;
+        for (byte cell : cells) {
+            if (cell == type) {
+                count++;
             }
         }
+        return count;
+    }
+
+    // BFS od podanego pola; pamięć zależy od przeszukanego obszaru, a nie od rozmiaru planszy
+    public synchronized int[] findNearestPassable(int startRow, int startCol) {
+        if (!isValidPosition(startRow, startCol)) {
+            return null;
+        }
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        Set<Integer> visited = new HashSet<>();
+        int start = indexOf(startRow, startCol);
+        queue.add(start);
+        visited.add(start);
+
+        while (!queue.isEmpty() && visited.size() < NEAREST_CELL_SEARCH_LIMIT) {
+            int index = queue.poll();
+            if (isPassable(index)) {
+                return new int[]{index / cols, index % cols};
+            }
+
+            int row = index / cols;
+            int col = index % cols;
+            if (row > 0 && visited.add(index - cols)) queue.add(index - cols);
+            if (row < rows - 1 && visited.add(index + cols)) queue.add(index + cols);
+            if (col > 0 && visited.add(index - 1)) queue.add(index - 1);
+            if (col < cols - 1 && visited.add(index + 1)) queue.add(index + 1);
+        }
+
+        return null;
+    }
+
+    public int indexOf(int row, int col) {
+        return row * cols + col;
+    }
+
+    public int size() {
+        return rows * cols;
+    }
+
+    public boolean isChunked() {
+        return storage.isChunked();
+    }
+
+    public byte getTypeCode(int index) {
+        return storage.get(index);
+    }
+
+    public Cell.CellType getCellType(int index) {
+        return CELL_TYPES[storage.get(index)];
     }
 
     public Cell getCell(int row, int col) {
         if (isValidPosition(row, col)) {
-            return board[row][col];
+            return createView(indexOf(row, col));
         }
         return null;
     }
 
+    private Cell createView(int index) {
+        return Cell.of(CELL_TYPES[storage.get(index)], powerUps.get(index), -1);
+    }
+
     public synchronized void setCell(int row, int col, Cell cell) {
         if (isValidPosition(row, col)) {
-            board[row][col] = cell;
+            int index = indexOf(row, col);
+            writeType(index, (byte) cell.getType().ordinal());
+            if (cell.getPowerUp() != null) {
+                powerUps.put(index, cell.getPowerUp());
+                payloadsChanged = true;
+            }
+        }
+    }
+
+    public synchronized void setCellType(int row, int col, Cell.CellType type) {
+        if (isValidPosition(row, col)) {
+            writeType(indexOf(row, col), (byte) type.ordinal());
+        }
+    }
+
+    public synchronized void placePowerUp(int row, int col, PowerUp powerUp) {
+        if (isValidPosition(row, col) && powerUp != null) {
+            int index = indexOf(row, col);
+            writeType(index, POWERUP);
+            powerUps.put(index, powerUp);
+            payloadsChanged = true;
+        }
+    }
+
+    // Zmiana typu usuwa dane, które do nowego typu nie pasują
+    private void writeType(int index, byte type) {
+        byte previous = storage.get(index);
+        markDirty(index);
+        if (type == EMPTY && isInterior(index)) {
+            freeCells.add(index);
+        } else if (previous == EMPTY) {
+            freeCells.remove(index);
+        }
+        storage.set(index, type);
+        if ((type == WALL) != (previous == WALL)) {
+            wallVersion++;
+        }
+        if (type != POWERUP && !powerUps.isEmpty() && powerUps.remove(index) != null) {
+            payloadsChanged = true;
         }
     }
 
+    private void markDirty(int index) {
+        if (dirtyCells.get(index)) {
+            return;
+        }
+        dirtyCells.set(index);
+        if (changeCount == changeList.length) {
+            changeList = Arrays.copyOf(changeList, changeCount * 2);
+        }
+        changeList[changeCount++] = index;
+    }
+
+    public synchronized boolean hasChanges() {
+        return changeCount > 0 || !replacedPages.isEmpty();
+    }
+
+    // Zwraca indeksy zmienionych komórek i zeruje zbiór zmian
+    public synchronized int[] drainChanges() {
+        int[] changes = Arrays.copyOf(changeList, changeCount);
+        for (int i = 0; i < changeCount; i++) {
+            dirtyCells.clear(changeList[i]);
+        }
+        changeCount = 0;
+        return changes;
+    }
+
+    private int pageRowCount() {
+        return (rows + storage.getPageRows() - 1) / storage.getPageRows();
+    }
+
+    private int pageColumnCount() {
+        return (cols + storage.getPageCols() - 1) / storage.getPageCols();
+    }
+
+    // Publikuje niezmienną wersję planszy; niezmienione strony (wiersze albo kawałki) są
+    // współdzielone z poprzednią wersją, kopiowane są tylko strony ze zmienionymi komórkami
+    public synchronized BoardSnapshot createSnapshot() {
+        BoardSnapshot previous = lastSnapshot;
+        int[] changes = drainChanges();
+        int pageRows = storage.getPageRows();
+        int pageCols = storage.getPageCols();
+        int pageColumns = pageColumnCount();
+        byte[][][] pages;
+
+        if (previous == null) {
+            pages = new byte[pageRowCount()][pageColumns][];
+            for (int pageRow = 0; pageRow < pages.length; pageRow++) {
+                for (int pageCol = 0; pageCol < pageColumns; pageCol++) {
+                    pages[pageRow][pageCol] = storage.copyPage(pageRow, pageCol);
+                }
+            }
+        } else {
+            pages = previous.copyPageTable();
+            Set<Integer> dirtyPages = new HashSet<>(replacedPages);
+            for (int index : changes) {
+                dirtyPages.add((index / cols / pageRows) * pageColumns + (index % cols) / pageCols);
+            }
+            for (int pageId : dirtyPages) {
+                int pageRow = pageId / pageColumns;
+                if (pages[pageRow] == previous.pageRow(pageRow)) {
+                    pages[pageRow] = pages[pageRow].clone();
+                }
+                pages[pageRow][pageId % pageColumns] = storage.copyPage(pageRow, pageId % pageColumns);
+            }
+        }
+
+        Map<Integer, PowerUp> powerUpView = previous != null && !payloadsChanged
+                ? previous.powerUps() : Collections.unmodifiableMap(new HashMap<>(powerUps));
+        payloadsChanged = false;
+        boolean pagesReplaced = !replacedPages.isEmpty();
+        replacedPages.clear();
+
+        long version = previous != null ? previous.getVersion() + 1 : 0;
+        lastSnapshot = new BoardSnapshot(boardId, version, rows, cols, pageRows, pageCols, pages, powerUpView,
+                previous != null ? changes : new int[0], pagesReplaced);
+        return lastSnapshot;
+    }
+
     public Cell.CellType getCellType(int row, int col) {
-        Cell cell = getCell(row, col);
-        return cell != null ? cell.getType() : Cell.CellType.WALL;
+        return isValidPosition(row, col) ? CELL_TYPES[storage.get(indexOf(row, col))] : Cell.CellType.WALL;
+    }
+
+    public PowerUp getPowerUp(int row, int col) {
+        return isValidPosition(row, col) ? powerUps.get(indexOf(row, col)) : null;
     }
 
     public boolean isValidPosition(int row, int col) {
@@ -82,18 +500,54 @@ public class GameBoard implements Serializable {
     }
 
     public boolean isPassable(int row, int col) {
-        Cell cell = getCell(row, col);
-        return cell != null && cell.isPassable();
+        return isValidPosition(row, col) && isPassable(indexOf(row, col));
+    }
+
+    public boolean isPassable(int index) {
+        return storage.isPassable(index);
+    }
+
+    public int getNeighborMask(int index) {
+        return storage.getNeighborMask(index);
+    }
+
+    public boolean canMove(int index, Player.Direction direction) {
+        return (storage.getNeighborMask(index) & (1 << direction.ordinal())) != 0;
+    }
+
+    public int neighborIndex(int index, Player.Direction direction) {
+        return index + neighborOffset[direction.ordinal()];
+    }
+
+    // null dla plansz w kawałkach i bez końca - tam duchy decydują na każdym polu
+    public synchronized JunctionGraph getJunctionGraph() {
+        if (isChunked() || isEndless()) {
+            return null;
+        }
+        if (junctionGraph == null || junctionGraphVersion != wallVersion) {
+            junctionGraph = JunctionGraph.build(this);
+            junctionGraphVersion = wallVersion;
+        }
+        return junctionGraph;
+    }
+
+    // Rośnie przy każdej zmianie ścian - pozwala unieważniać dane wyliczone z układu labiryntu
+    public int getWallVersion() {
+        return wallVersion;
     }
 
     public synchronized void clearCell(int row, int col) {
-        Cell cell = getCell(row, col);
-        if (cell != null && cell.hasCollectible()) {
-            if (cell.getType() == Cell.CellType.DOT ||
-                    cell.getType() == Cell.CellType.POWER_PELLET) {
-                collectedDots++;
-            }
-            cell.clear();
+        if (!isValidPosition(row, col)) {
+            return;
+        }
+
+        int index = indexOf(row, col);
+        byte type = storage.get(index);
+        if (type == DOT || type == POWER_PELLET) {
+            collectedDots++;
+            writeType(index, EMPTY);
+        } else if (type == POWERUP) {
+            writeType(index, EMPTY);
         }
     }
 
@@ -105,6 +559,10 @@ public class GameBoard implements Serializable {
         return ghostSpawnPosition.clone();
     }
 
+    public EntityLayer getEntities() { return entities; }
+    public FreeCellIndex getFreeCells() { return freeCells; }
+
+    public long getSeed() { return seed; }
     public int getRows() { return rows; }
     public int getCols() { return cols; }
 
@@ -112,13 +570,7 @@ public class GameBoard implements Serializable {
     public int getCollectedDots() { return collectedDots; }
     public int getAllDotsCount() { return totalDots - collectedDots; }
 
-    public Cell[][] getBoardCopy() {
-        Cell[][] copy = new Cell[rows][cols];
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                copy[row][col] = new Cell(board[row][col]);
-            }
-        }
-        return copy;
+    public MazeStats getMazeStats() {
+        return mazeStats;
     }
-}
\ No newline at end of file
+}
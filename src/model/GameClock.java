@@ -0,0 +1,16 @@
+package model;
+
+import java.io.Serializable;
+
+// Czas gry liczony w tickach. Cała logika modelu pyta o czas tylko zegar - zegar wirtualny
+// pozwala przegrać rozgrywkę szybciej niż w czasie rzeczywistym (symulacje, testy wydajności).
+public interface GameClock extends Serializable {
+
+    // Czas w milisekundach; w obrębie jednego ticka zegar wirtualny zwraca zawsze to samo
+    long currentTimeMillis();
+
+    // Wywoływane przez model na początku każdego ticka
+    void tick();
+
+    long getTicks();
+}
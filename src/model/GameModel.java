@@ -1,7 +1,10 @@
 package model;
 
+import utils.RandomStreams;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class GameModel {
 
@@ -9,7 +12,8 @@ public class GameModel {
     private Player pacman;
     private List<Ghost> ghosts;
     private List<PowerUp> activePowerUps;
-    private GameState gameState;
+    // volatile - movePacman sprawdza stan bez blokady
+    private volatile GameState gameState;
 
     private int score;
     private int lives;
@@ -20,12 +24,65 @@ public class GameModel {
 
     private List<GameModelListener> listeners;
 
+    // Ostatni opublikowany stan - czytelnicy (EDT) nie biorą żadnej blokady
+    private volatile GameSnapshot snapshot;
+    private long epoch;
+
     private final Object gameLock = new Object();
+    // Osobne strumienie z ziarna planszy - losowania jednego podsystemu nie przesuwają innych
+    private SplittableRandom dotRandom;
+    private SplittableRandom powerUpRandom;
+    private SplittableRandom spawnRandom;
+    private long seed;
+    // Jedyne źródło czasu logiki gry - podmieniany na wirtualny w symulacjach
+    private GameClock clock = new WallClock();
+    // Jedno pole odległości od Pac-Mana na tick, wspólne dla wszystkich duchów
+    private final DistanceField pacmanDistances = new DistanceField();
+    // Tryb roju: decyzje duchów liczone równolegle, ruchy zatwierdzane po kolei według id
+    private ForkJoinPool ghostPool = ForkJoinPool.commonPool();
+    private Player.Direction[] ghostMoves = new Player.Direction[0];
+    private long[] ghostMovedAt = new long[0];
+    private long ghostTick;
+    // Położenia duchów do zapytań o kolizje; pole Pac-Mana z początku ticka do testu minięcia się
+    private SpatialHash ghostGrid = new SpatialHash(0);
+    private int pacmanFromRow;
+    private int pacmanFromCol;
+    // Postęp ruchu w jednostkach UNITS_PER_CELL na pole: postać dodaje swoją prędkość co tick
+    // i robi krok za każde pełne pole; reszta przechodzi na następny tick
+    private int pacmanProgress;
+    private int[] ghostProgress = new int[0];
+    // Kroki duchów w tym ticku: (chwila w ticku << STEP_ID_BITS) | id, rosnąco
+    private long[] ghostSteps = new long[0];
+    // Kierunki od gracza czekają tu na początek ticka - wciśnięcie klawisza nie czeka na gameLock.
+    // Opróżniana tylko pod gameLock, więc ma jednego konsumenta
+    private final InputQueue input = new InputQueue();
+    private final InputQueue.Consumer inputApplier = this::applyDirection;
+    private static final InputQueue.Consumer DISCARD_INPUT = (direction, enqueuedNanos) -> { };
 
     private static final long DOT_RESPAWN_INTERVAL = 5000;
     private static final long POWERUP_SPAWN_INTERVAL = 3000;
     private static final double DOT_RESPAWN_CHANCE = 0.3;
     private static final double POWERUP_SPAWN_CHANCE = 0.2;
+    private static final int SPAWN_SAMPLE_ATTEMPTS = 16;
+    private static final int SPAWN_PACMAN_RADIUS = 3;
+    private static final int SPAWN_GHOST_RADIUS = 2;
+    private static final int GHOST_SPAWN_WINDOW = 64;
+    public static final int CLASSIC_GHOSTS = 4;
+    public static final int MAX_GHOSTS = 5000;
+    private static final int PARALLEL_GHOSTS = 256;
+    private static final int GHOST_BATCH = 64;
+    private static final int SWARM_SPAWN_ATTEMPTS = 32;
+    private static final int SWARM_PACMAN_DISTANCE = 8;
+    private static final int UNITS_PER_CELL = 100;
+    private static final int FRIGHTENED_GHOST_SPEED = 50;
+    // Chwila kroku w ticku z rozdzielczością 1/2^MOMENT_SHIFT ticka; 1 << MOMENT_SHIFT to koniec ticka
+    private static final int MOMENT_SHIFT = 20;
+    private static final int STEP_ID_BITS = 16;
+    private static final long STEP_ID_MASK = (1L << STEP_ID_BITS) - 1;
+
+    // Przesunięcia wiersza/kolumny dla Player.Direction.ordinal(): UP, DOWN, LEFT, RIGHT
+    private static final int[] DELTA_ROW = {-1, 1, 0, 0};
+    private static final int[] DELTA_COL = {0, 0, -1, 1};
 
     public enum GameState {
         MENU, PLAYING, PAUSED, GAME_OVER, VICTORY
@@ -40,42 +97,104 @@ public class GameModel {
         this.score = 0;
         this.lastDotRespawn = 0;
         this.lastPowerUpSpawn = 0;
+        this.epoch = 0;
+        publishSnapshot();
     }
 
     public synchronized void initializeGame(int rows, int cols) {
+        initializeGame(rows, cols, false);
+    }
+
+    // endless: plansza jest oknem przewijanym w dół po labiryncie bez końca
+    public synchronized void initializeGame(int rows, int cols, boolean endless) {
+        initializeGame(new GameBoard(rows, cols, endless));
+    }
+
+    // Gra na gotowej, jeszcze nieużywanej planszy (np. wygenerowanej wcześniej w tle)
+    public synchronized void initializeGame(GameBoard board) {
+        initializeGame(board, CLASSIC_GHOSTS);
+    }
+
+    // Więcej niż CLASSIC_GHOSTS duchów to tryb roju
+    public synchronized void initializeGame(GameBoard board, int ghostCount) {
         synchronized (gameLock) {
-            this.gameBoard = new GameBoard(rows, cols);
+            this.gameBoard = board;
+            this.seed = board.getSeed();
+            input.drain(DISCARD_INPUT);
+            RandomStreams streams = new RandomStreams(seed);
+            this.dotRandom = streams.create(RandomStreams.Stream.DOTS);
+            this.powerUpRandom = streams.create(RandomStreams.Stream.POWER_UPS);
+            this.spawnRandom = streams.create(RandomStreams.Stream.GHOST_SPAWNS);
 
             int[] pacmanPos = gameBoard.getPacmanStartPosition();
-            this.pacman = new Player(pacmanPos[0], pacmanPos[1]);
+            this.pacman = new Player(pacmanPos[0], pacmanPos[1], clock);
+            gameBoard.getEntities().placePacman(gameBoard.indexOf(pacmanPos[0], pacmanPos[1]));
 
-            initializeGhosts();
+            initializeGhosts(Math.max(1, Math.min(MAX_GHOSTS, ghostCount)), streams);
 
             this.score = 0;
             this.lives = 3;
-            this.gameStartTime = System.currentTimeMillis();
-            this.lastDotRespawn = System.currentTimeMillis();
-            this.lastPowerUpSpawn = System.currentTimeMillis();
+            this.gameStartTime = clock.currentTimeMillis();
+            this.lastDotRespawn = gameStartTime;
+            this.lastPowerUpSpawn = gameStartTime;
             this.gameState = GameState.PLAYING;
 
             this.activePowerUps.clear();
 
-            updateBoardWithEntities();
+            publishSnapshot();
             notifyModelChanged();
         }
     }
 
-    private void initializeGhosts() {
+    private void initializeGhosts(int count, RandomStreams streams) {
         ghosts.clear();
+        ghostGrid = new SpatialHash(count);
 
-        List<int[]> ghostPositions = findGoodGhostPositions();
+        List<int[]> ghostPositions = findGhostPositions(count);
 
-        for (int i = 0; i < Math.min(4, ghostPositions.size()); i++) {
+        for (int i = 0; i < Math.min(count, ghostPositions.size()); i++) {
             int[] pos = ghostPositions.get(i);
-            Ghost ghost = new Ghost(i, pos[0], pos[1]);
+            Ghost ghost = new Ghost(i, pos[0], pos[1], streams.ghostSeed(i), clock);
             ghost.setColor(getGhostColor(i));
             ghosts.add(ghost);
+            placeGhostAt(ghost, pos[0], pos[1]);
         }
+
+        ghostMoves = new Player.Direction[ghosts.size()];
+        ghostMovedAt = new long[ghosts.size()];
+        Arrays.fill(ghostMovedAt, -1);
+        ghostProgress = new int[ghosts.size()];
+        ghostSteps = new long[ghosts.size()];
+        pacmanProgress = 0;
+    }
+
+    // Pierwsze pozycje jak w klasycznej grze; rój dostaje losowe przejścia w oknie wokół Pac-Mana,
+    // a gdy ich brakuje - pozycje powtarzają się po kolei
+    private List<int[]> findGhostPositions(int count) {
+        List<int[]> positions = findGoodGhostPositions();
+        if (positions.isEmpty() || count <= positions.size()) {
+            return positions;
+        }
+
+        int[] center = gameBoard.getPacmanStartPosition();
+        int top = Math.max(0, center[0] - GHOST_SPAWN_WINDOW);
+        int left = Math.max(0, center[1] - GHOST_SPAWN_WINDOW);
+        int height = Math.min(gameBoard.getRows(), center[0] + GHOST_SPAWN_WINDOW + 1) - top;
+        int width = Math.min(gameBoard.getCols(), center[1] + GHOST_SPAWN_WINDOW + 1) - left;
+
+        int classic = positions.size();
+        for (int attempt = 0; positions.size() < count && attempt < count * SWARM_SPAWN_ATTEMPTS; attempt++) {
+            int row = top + spawnRandom.nextInt(height);
+            int col = left + spawnRandom.nextInt(width);
+            int distance = Math.abs(row - center[0]) + Math.abs(col - center[1]);
+            if (distance >= SWARM_PACMAN_DISTANCE && gameBoard.isPassable(row, col)) {
+                positions.add(new int[]{row, col});
+            }
+        }
+        for (int i = 0; positions.size() < count; i++) {
+            positions.add(positions.get(i % classic));
+        }
+        return positions;
     }
 
     private List<int[]> findGoodGhostPositions() {
@@ -83,19 +202,28 @@ public class GameModel {
         int rows = gameBoard.getRows();
         int cols = gameBoard.getCols();
 
+        // Na dużych planszach duchy startują w oknie wokół Pac-Mana, a nie w odległych rogach
+        int[] center = gameBoard.getPacmanStartPosition();
+        int top = Math.max(0, center[0] - GHOST_SPAWN_WINDOW);
+        int left = Math.max(0, center[1] - GHOST_SPAWN_WINDOW);
+        int bottom = Math.min(rows - 1, center[0] + GHOST_SPAWN_WINDOW);
+        int right = Math.min(cols - 1, center[1] + GHOST_SPAWN_WINDOW);
+        int middleRow = (top + bottom) / 2;
+        int middleCol = (left + right) / 2;
+
         int[][] areas = {
-                {1, 1},
-                {1, cols - 2},
-                {rows - 2, 1},
-                {rows - 2, cols - 2},
-                {rows / 2, 1},
-                {rows / 2, cols - 2},
-                {1, cols / 2},
-                {rows - 2, cols / 2}
+                {top + 1, left + 1},
+                {top + 1, right - 1},
+                {bottom - 1, left + 1},
+                {bottom - 1, right - 1},
+                {middleRow, left + 1},
+                {middleRow, right - 1},
+                {top + 1, middleCol},
+                {bottom - 1, middleCol}
         };
 
         for (int[] area : areas) {
-            int[] validPos = findNearestEmptyPosition(area[0], area[1]);
+            int[] validPos = gameBoard.findNearestPassable(area[0], area[1]);
             if (validPos != null) {
                 positions.add(validPos);
             }
@@ -104,39 +232,8 @@ public class GameModel {
         return positions;
     }
 
-    private int[] findNearestEmptyPosition(int startRow, int startCol) {
-        Queue<int[]> queue = new LinkedList<>();
-        boolean[][] visited = new boolean[gameBoard.getRows()][gameBoard.getCols()];
-
-        queue.offer(new int[]{startRow, startCol});
-        visited[startRow][startCol] = true;
-
-        while (!queue.isEmpty()) {
-            int[] current = queue.poll();
-            int row = current[0];
-            int col = current[1];
-
-            if (gameBoard.isPassable(row, col)) {
-                return new int[]{row, col};
-            }
-
-            int[][] directions = {{-1,0}, {1,0}, {0,-1}, {0,1}};
-            for (int[] dir : directions) {
-                int newRow = row + dir[0];
-                int newCol = col + dir[1];
-
-                if (gameBoard.isValidPosition(newRow, newCol) && !visited[newRow][newCol]) {
-                    visited[newRow][newCol] = true;
-                    queue.offer(new int[]{newRow, newCol});
-                }
-            }
-        }
-
-        return null;
-    }
-
     private Ghost.GhostColor getGhostColor(int ghostId) {
-        switch (ghostId) {
+        switch (ghostId % CLASSIC_GHOSTS) {
             case 0: return Ghost.GhostColor.RED;
             case 1: return Ghost.GhostColor.PINK;
             case 2: return Ghost.GhostColor.CYAN;
@@ -149,138 +246,216 @@ public class GameModel {
         synchronized (gameLock) {
             if (gameState != GameState.PLAYING) return;
 
-            gameTime = System.currentTimeMillis() - gameStartTime;
+            clock.tick();
+            long now = clock.currentTimeMillis();
+            gameTime = now - gameStartTime;
 
-            updatePacmanPosition();
-            updateGhosts();
-            checkCollisions();
-            respawnDots();
-            spawnPowerUps();
+            applyInput();
+            moveEntities(now);
+            respawnDots(now);
+            spawnPowerUps(now);
             checkGameEndConditions();
             updatePowerUps();
-            updateBoardWithEntities();
 
+            publishSnapshot();
             notifyModelChanged();
         }
     }
 
-    private void respawnDots() {
-        long currentTime = System.currentTimeMillis();
+    private void respawnDots(long currentTime) {
         if (currentTime - lastDotRespawn < DOT_RESPAWN_INTERVAL) {
             return;
         }
 
-        Random random = new Random();
-        List<int[]> emptyCells = findEmptyCells();
+        // Tyle kropek, ile dałoby losowanie z szansą DOT_RESPAWN_CHANCE dla każdego pustego pola
+        int respawnCount = sampleRespawnCount(gameBoard.getFreeCells().size());
+        int cols = gameBoard.getCols();
 
-        for (int[] pos : emptyCells) {
-            if (random.nextDouble() < DOT_RESPAWN_CHANCE) {
-                Cell cell = gameBoard.getCell(pos[0], pos[1]);
-                if (cell != null && cell.getType() == Cell.CellType.EMPTY) {
-                    if (random.nextDouble() < 0.9) {
-                        cell.setType(Cell.CellType.DOT);
-                    } else {
-                        cell.setType(Cell.CellType.POWER_PELLET);
-                    }
-                }
+        for (int i = 0; i < respawnCount; i++) {
+            int index = pickSpawnCell(dotRandom);
+            if (index < 0) {
+                break;
             }
+            Cell.CellType type = dotRandom.nextDouble() < 0.9 ? Cell.CellType.DOT : Cell.CellType.POWER_PELLET;
+            gameBoard.setCellType(index / cols, index % cols, type);
         }
 
         lastDotRespawn = currentTime;
     }
 
-    private void spawnPowerUps() {
-        long currentTime = System.currentTimeMillis();
+    private int sampleRespawnCount(int freeCellCount) {
+        double mean = freeCellCount * DOT_RESPAWN_CHANCE;
+        double deviation = Math.sqrt(mean * (1 - DOT_RESPAWN_CHANCE));
+        int count = (int) Math.round(mean + dotRandom.nextGaussian() * deviation);
+        return Math.max(0, Math.min(freeCellCount, count));
+    }
+
+    private void spawnPowerUps(long currentTime) {
         if (currentTime - lastPowerUpSpawn < POWERUP_SPAWN_INTERVAL) {
             return;
         }
 
-        Random random = new Random();
-        if (random.nextDouble() < POWERUP_SPAWN_CHANCE) {
-            List<int[]> emptyCells = findEmptyCells();
-            if (!emptyCells.isEmpty()) {
-                int[] pos = emptyCells.get(random.nextInt(emptyCells.size()));
-                Cell cell = gameBoard.getCell(pos[0], pos[1]);
+        if (powerUpRandom.nextDouble() < POWERUP_SPAWN_CHANCE) {
+            int index = pickSpawnCell(powerUpRandom);
+            if (index >= 0) {
+                int cols = gameBoard.getCols();
 
-                if (cell != null && cell.getType() == Cell.CellType.EMPTY) {
-                    PowerUp.PowerUpType[] types = PowerUp.PowerUpType.values();
-                    PowerUp.PowerUpType randomType = types[random.nextInt(types.length)];
+                PowerUp.PowerUpType[] types = PowerUp.PowerUpType.values();
+                PowerUp.PowerUpType randomType = types[powerUpRandom.nextInt(types.length)];
 
-                    PowerUp powerUp = new PowerUp(randomType);
-                    cell.setPowerUp(powerUp);
-                    cell.setType(Cell.CellType.POWERUP);
-                }
+                gameBoard.placePowerUp(index / cols, index % cols, new PowerUp(randomType, clock));
             }
         }
 
         lastPowerUpSpawn = currentTime;
     }
 
-    private List<int[]> findEmptyCells() {
-        List<int[]> emptyCells = new ArrayList<>();
+    // Losowe puste pole z dala od postaci - koszt nie zależy od rozmiaru planszy
+    private int pickSpawnCell(SplittableRandom random) {
+        return gameBoard.getFreeCells().sample(random, SPAWN_SAMPLE_ATTEMPTS, this::isFarFromEntities);
+    }
 
-        for (int row = 1; row < gameBoard.getRows() - 1; row++) {
-            for (int col = 1; col < gameBoard.getCols() - 1; col++) {
-                Cell cell = gameBoard.getCell(row, col);
-                if (cell != null && cell.getType() == Cell.CellType.EMPTY) {
-                    boolean tooClose = false;
+    private boolean isFarFromEntities(int index) {
+        int row = index / gameBoard.getCols();
+        int col = index % gameBoard.getCols();
 
-                    int pacmanDistance = Math.abs(pacman.getRow() - row) + Math.abs(pacman.getCol() - col);
-                    if (pacmanDistance < 3) tooClose = true;
+        int pacmanDistance = Math.abs(pacman.getRow() - row) + Math.abs(pacman.getCol() - col);
+        return pacmanDistance >= SPAWN_PACMAN_RADIUS && !isNearGhost(row, col, SPAWN_GHOST_RADIUS);
+    }
 
-                    for (Ghost ghost : ghosts) {
-                        int ghostDistance = Math.abs(ghost.getRow() - row) + Math.abs(ghost.getCol() - col);
-                        if (ghostDistance < 2) {
-                            tooClose = true;
-                            break;
-                        }
-                    }
+    // Duchy w odległości < radius z kubełków siatki, bez przeglądania listy duchów
+    private boolean isNearGhost(int row, int col, int radius) {
+        return ghostGrid.anyWithin(row, col, radius);
+    }
 
-                    if (!tooClose) {
-                        emptyCells.add(new int[]{row, col});
-                    }
-                }
-            }
-        }
+    // Przesunięcie postaci aktualizuje tylko warstwę postaci - O(1) na ruch
+    private void movePacmanTo(int row, int col) {
+        pacman.setPosition(row, col);
+        gameBoard.getEntities().placePacman(gameBoard.indexOf(row, col));
+    }
 
-        return emptyCells;
+    // Krok w ramach ticka - siatka zapamiętuje pole startowe do testu minięcia się z Pac-Manem
+    private void moveGhostTo(Ghost ghost, int row, int col) {
+        ghost.setPosition(row, col);
+        gameBoard.getEntities().placeGhost(ghost.getId(), gameBoard.indexOf(row, col));
+        ghostGrid.move(ghost.getId(), row, col);
     }
 
-    private void updateBoardWithEntities() {
-        for (int row = 0; row < gameBoard.getRows(); row++) {
-            for (int col = 0; col < gameBoard.getCols(); col++) {
-                Cell cell = gameBoard.getCell(row, col);
-                if (cell != null) {
-                    if (cell.getType() == Cell.CellType.PACMAN) {
-                        cell.setType(Cell.CellType.EMPTY);
-                    } else if (cell.getType() == Cell.CellType.GHOST) {
-                        cell.setType(Cell.CellType.EMPTY);
-                        cell.setGhostId(-1);
-                    }
-                }
-            }
+    // Przeniesienie bez przejścia przez pola po drodze (start, powrót, przewinięcie)
+    private void placeGhostAt(Ghost ghost, int row, int col) {
+        ghost.setPosition(row, col);
+        gameBoard.getEntities().placeGhost(ghost.getId(), gameBoard.indexOf(row, col));
+        ghostGrid.place(ghost.getId(), row, col);
+    }
+
+    // Bez blokad - kierunek zostanie zastosowany na początku następnego ticka
+    public void movePacman(Player.Direction direction) {
+        if (gameState != GameState.PLAYING) {
+            return;
         }
+        if (direction != null) {
+            input.offer(direction);
+        }
+    }
+
+    // Wszystkie kierunki z kolejki w kolejności wciśnięcia; ostatni zostaje następnym kierunkiem
+    private void applyInput() {
+        input.drain(inputApplier);
+    }
 
-        Cell pacmanCell = gameBoard.getCell(pacman.getRow(), pacman.getCol());
-        if (pacmanCell != null) {
-            pacmanCell.setType(Cell.CellType.PACMAN);
+    private void applyDirection(Player.Direction direction, long enqueuedNanos) {
+        pacman.setNextDirection(direction);
+        input.recordLatency(System.nanoTime() - enqueuedNanos);
+    }
+
+    // Kierunki wciśnięte w pauzie przepadają bez pomiaru opóźnienia
+    public void discardInput() {
+        synchronized (gameLock) {
+            input.drain(DISCARD_INPUT);
         }
+    }
 
-        for (Ghost ghost : ghosts) {
-            Cell ghostCell = gameBoard.getCell(ghost.getRow(), ghost.getCol());
-            if (ghostCell != null) {
-                ghostCell.setType(Cell.CellType.GHOST);
-                ghostCell.setGhostId(ghost.getId());
+    public InputQueue getInputQueue() {
+        return input;
+    }
+
+    // Kroki wszystkich postaci w kolejności czasu w ticku. Kroki z tej samej chwili tworzą jedną
+    // partię (najpierw Pac-Man, potem duchy według id) z testem kolizji na końcu - przy zwykłych
+    // prędkościach to jedna partia na tick, jak dawniej. Utrata życia kończy ruchy w tym ticku.
+    private void moveEntities(long now) {
+        int pacmanSpeed = Math.round(UNITS_PER_CELL * pacman.getSpeedMultiplier());
+        int pacmanStart = pacmanProgress;
+        int pacmanSteps = (pacmanStart + pacmanSpeed) / UNITS_PER_CELL;
+        pacmanProgress = (pacmanStart + pacmanSpeed) % UNITS_PER_CELL;
+        int ghostStepCount = scheduleGhostSteps();
+
+        int pacmanStep = 1;
+        int nextGhost = 0;
+        while (pacmanStep <= pacmanSteps || nextGhost < ghostStepCount) {
+            long pacmanMoment = pacmanStep <= pacmanSteps
+                    ? stepMoment(pacmanStep * UNITS_PER_CELL - pacmanStart, pacmanSpeed) : Long.MAX_VALUE;
+            long ghostMoment = nextGhost < ghostStepCount ? ghostSteps[nextGhost] >>> STEP_ID_BITS : Long.MAX_VALUE;
+            long moment = Math.min(pacmanMoment, ghostMoment);
+
+            ghostGrid.nextTick();
+            pacmanFromRow = pacman.getRow();
+            pacmanFromCol = pacman.getCol();
+
+            if (pacmanMoment == moment) {
+                updatePacmanPosition();
+                scrollWithPacman();
+                pacmanStep++;
+            }
+            int batchEnd = nextGhost;
+            while (batchEnd < ghostStepCount && ghostSteps[batchEnd] >>> STEP_ID_BITS == moment) {
+                batchEnd++;
+            }
+            if (batchEnd > nextGhost) {
+                updateGhosts(now, nextGhost, batchEnd);
+                nextGhost = batchEnd;
+            }
+
+            if (checkCollisions()) {
+                return;
             }
         }
     }
 
-    public synchronized void movePacman(Player.Direction direction) {
-        synchronized (gameLock) {
-            if (gameState != GameState.PLAYING) return;
+    // Wypełnia ghostSteps duchami, które w tym ticku robią krok (najwyżej jeden - duch nie jest
+    // szybszy niż UNITS_PER_CELL na tick); sortuje tylko, gdy chwile kroków są różne
+    private int scheduleGhostSteps() {
+        int count = 0;
+        boolean sorted = true;
+        for (int id = 0; id < ghosts.size(); id++) {
+            int speed = ghostSpeed(ghosts.get(id));
+            int progress = ghostProgress[id] + speed;
+            if (progress < UNITS_PER_CELL) {
+                ghostProgress[id] = progress;
+                continue;
+            }
+            long step = stepMoment(UNITS_PER_CELL - ghostProgress[id], speed) << STEP_ID_BITS | id;
+            ghostProgress[id] = progress - UNITS_PER_CELL;
+            if (count > 0 && step < ghostSteps[count - 1]) {
+                sorted = false;
+            }
+            ghostSteps[count++] = step;
+        }
+        if (!sorted) {
+            Arrays.sort(ghostSteps, 0, count);
+        }
+        return count;
+    }
 
-            pacman.setNextDirection(direction);
+    private int ghostSpeed(Ghost ghost) {
+        if (ghost.isFrozen()) {
+            return 0;
         }
+        return ghost.isFrightened() ? FRIGHTENED_GHOST_SPEED : UNITS_PER_CELL;
+    }
+
+    // Chwila w ticku, w której postać o prędkości speed pokona jeszcze distance jednostek
+    private static long stepMoment(int distance, int speed) {
+        return (((long) distance << MOMENT_SHIFT) + speed - 1) / speed;
     }
 
     private void updatePacmanPosition() {
@@ -292,54 +467,70 @@ public class GameModel {
 
         Player.Direction currentDir = pacman.getCurrentDirection();
         if (currentDir != null && canMove(pacman.getRow(), pacman.getCol(), currentDir)) {
-            int[] newPos = getNewPosition(pacman.getRow(), pacman.getCol(), currentDir);
-            pacman.setPosition(newPos[0], newPos[1]);
+            int newRow = pacman.getRow() + DELTA_ROW[currentDir.ordinal()];
+            int newCol = pacman.getCol() + DELTA_COL[currentDir.ordinal()];
+            movePacmanTo(newRow, newCol);
 
-            collectDot(newPos[0], newPos[1]);
+            collectDot(newRow, newCol);
         }
     }
 
-    private boolean canMove(int row, int col, Player.Direction direction) {
-        int[] newPos = getNewPosition(row, col, direction);
+    // Gdy Pac-Man zejdzie poniżej 2/3 okna, okno przesuwa się tak, żeby był znowu na środku
+    private void scrollWithPacman() {
+        if (!gameBoard.isEndless()) {
+            return;
+        }
 
-        if (pacman != null && pacman.canPassThroughWalls()) {
-            return gameBoard.isValidPosition(newPos[0], newPos[1]);
+        int rows = gameBoard.getRows();
+        if (pacman.getRow() < rows * 2 / 3) {
+            return;
         }
 
-        return gameBoard.isPassable(newPos[0], newPos[1]);
+        int count = pacman.getRow() - rows / 2;
+        gameBoard.scroll(count);
+        movePacmanTo(pacman.getRow() - count, pacman.getCol());
+        pacmanFromRow -= count;
+
+        for (Ghost ghost : ghosts) {
+            int row = ghost.getRow() - count;
+            int[] pos = gameBoard.isPassable(row, ghost.getCol())
+                    ? new int[]{row, ghost.getCol()}
+                    : gameBoard.findNearestPassable(Math.max(0, row), ghost.getCol());
+            if (pos != null) {
+                placeGhostAt(ghost, pos[0], pos[1]);
+            }
+        }
     }
 
-    private int[] getNewPosition(int row, int col, Player.Direction direction) {
-        switch (direction) {
-            case UP:    return new int[]{row - 1, col};
-            case DOWN:  return new int[]{row + 1, col};
-            case LEFT:  return new int[]{row, col - 1};
-            case RIGHT: return new int[]{row, col + 1};
-            default:    return new int[]{row, col};
+    private boolean canMove(int row, int col, Player.Direction direction) {
+        if (pacman != null && pacman.canPassThroughWalls()) {
+            return gameBoard.isValidPosition(row + DELTA_ROW[direction.ordinal()],
+                    col + DELTA_COL[direction.ordinal()]);
         }
+
+        return gameBoard.canMove(gameBoard.indexOf(row, col), direction);
     }
 
     private void collectDot(int row, int col) {
-        Cell cell = gameBoard.getCell(row, col);
-        if (cell == null) return;
+        if (!gameBoard.isValidPosition(row, col)) return;
 
-        Cell.CellType cellType = cell.getType();
+        Cell.CellType cellType = gameBoard.getCellType(row, col);
 
         int points = 0;
         if (cellType == Cell.CellType.DOT) {
             points = 10;
-            cell.clear();
+            gameBoard.clearCell(row, col);
         } else if (cellType == Cell.CellType.POWER_PELLET) {
             points = 50;
-            cell.clear();
+            gameBoard.clearCell(row, col);
             activatePowerMode();
         } else if (cellType == Cell.CellType.POWERUP) {
             points = 100;
-            PowerUp powerUp = cell.getPowerUp();
+            PowerUp powerUp = gameBoard.getPowerUp(row, col);
             if (powerUp != null) {
                 activatePowerUp(powerUp);
             }
-            cell.clear();
+            gameBoard.clearCell(row, col);
         }
 
         if (pacman.hasDoublePoints()) {
@@ -354,7 +545,7 @@ public class GameModel {
             ghost.setFrightened(true);
         }
 
-        PowerUp powerMode = new PowerUp(PowerUp.PowerUpType.POWER_MODE);
+        PowerUp powerMode = new PowerUp(PowerUp.PowerUpType.POWER_MODE, clock);
         powerMode.activate();
         activePowerUps.add(powerMode);
     }
@@ -394,49 +585,135 @@ public class GameModel {
         }
     }
 
-    private void updateGhosts() {
-        for (Ghost ghost : ghosts) {
-            if (ghost.isFrozen()) continue;
+    // Zegar obowiązuje od następnego initializeGame
+    public synchronized void setClock(GameClock clock) {
+        synchronized (gameLock) {
+            this.clock = clock;
+        }
+    }
 
-            Player.Direction newDirection = ghost.calculateNextMove(gameBoard, pacman);
+    public synchronized GameClock getClock() {
+        return clock;
+    }
 
-            if (canMoveGhost(ghost.getRow(), ghost.getCol(), newDirection)) {
-                int[] newPos = getNewPosition(ghost.getRow(), ghost.getCol(), newDirection);
-                ghost.setPosition(newPos[0], newPos[1]);
-            }
+    public synchronized void setGhostPool(ForkJoinPool pool) {
+        synchronized (gameLock) {
+            this.ghostPool = pool;
         }
     }
 
-    private boolean canMoveGhost(int row, int col, Player.Direction direction) {
-        int[] newPos = getNewPosition(row, col, direction);
-        return gameBoard.isPassable(newPos[0], newPos[1]);
+    // Dwie fazy: decyzje (każdy duch czyta tylko planszę, wspólne pole odległości i własny stan,
+    // więc można je liczyć równolegle) i zatwierdzanie ruchów po kolei według id. Wynik nie zależy
+    // od liczby wątków. Plansza w kawałkach wczytuje dane przy odczycie, więc tam decyzje idą po kolei.
+    // Dotyczy duchów z ghostSteps[from, to) - jednej partii kroków
+    private void updateGhosts(long now, int from, int to) {
+        pacmanDistances.update(gameBoard, pacman.getRow(), pacman.getCol());
+        JunctionGraph graph = gameBoard.getJunctionGraph();
+
+        if (to - from >= PARALLEL_GHOSTS && !gameBoard.isChunked()) {
+            ghostPool.invoke(new GhostDecisionTask(graph, now, from, to));
+        } else {
+            decideGhosts(graph, now, from, to);
+        }
+
+        commitGhostMoves(from, to);
     }
 
-    private void checkCollisions() {
-        for (Ghost ghost : ghosts) {
-            if (pacman.getRow() == ghost.getRow() &&
-                    pacman.getCol() == ghost.getCol()) {
+    private void decideGhosts(JunctionGraph graph, long now, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int id = (int) (ghostSteps[i] & STEP_ID_MASK);
+            Ghost ghost = ghosts.get(id);
+            ghostMoves[id] = ghost.isFrozen() ? null
+                    : ghost.calculateNextMove(gameBoard, pacman, pacmanDistances, graph, now);
+        }
+    }
+
+    private class GhostDecisionTask extends RecursiveAction {
+        private final JunctionGraph graph;
+        private final long now;
+        private final int from;
+        private final int to;
 
-                if (ghost.isFrightened()) {
-                    score += 200;
-                    resetGhostPosition(ghost);
+        GhostDecisionTask(JunctionGraph graph, long now, int from, int to) {
+            this.graph = graph;
+            this.now = now;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GHOST_BATCH) {
+                decideGhosts(graph, now, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new GhostDecisionTask(graph, now, from, middle),
+                    new GhostDecisionTask(graph, now, middle, to));
+        }
+    }
+
+    // W trybie roju dwa duchy wchodzące w tej partii kroków na to samo pole: wchodzi ten o mniejszym id,
+    // drugi czeka. Duch, który wszedł, staje się głową listy pola, więc wystarczy sprawdzić głowę.
+    // W klasycznej grze duchy mogą jak dawniej wejść razem na jedno pole.
+    private void commitGhostMoves(int from, int to) {
+        ghostTick++;
+        boolean swarm = ghosts.size() > CLASSIC_GHOSTS;
+        EntityLayer entities = gameBoard.getEntities();
+        for (int step = from; step < to; step++) {
+            int i = (int) (ghostSteps[step] & STEP_ID_MASK);
+            Ghost ghost = ghosts.get(i);
+            Player.Direction direction = ghostMoves[i];
+            ghostMoves[i] = null;
+            if (direction == null || !canMoveGhost(ghost.getRow(), ghost.getCol(), direction)) {
+                continue;
+            }
+
+            int row = ghost.getRow() + DELTA_ROW[direction.ordinal()];
+            int col = ghost.getCol() + DELTA_COL[direction.ordinal()];
+            if (swarm) {
+                int occupant = entities.getGhostAt(gameBoard.indexOf(row, col));
+                if (occupant != EntityLayer.NONE && ghostMovedAt[occupant] == ghostTick) {
+                    continue;
+                }
+            }
+            moveGhostTo(ghost, row, col);
+            ghostMovedAt[i] = ghostTick;
+        }
+    }
+
+    private boolean canMoveGhost(int row, int col, Player.Direction direction) {
+        return gameBoard.canMove(gameBoard.indexOf(row, col), direction);
+    }
+
+    // Tylko duchy z kubełków pola Pac-Mana sprzed i po ruchu - O(1) niezależnie od liczby duchów.
+    // Trafienie to wspólne pole albo zamiana pól w tej partii kroków; zwraca true po utracie życia.
+    private boolean checkCollisions() {
+        int hits = ghostGrid.collectSwept(pacmanFromRow, pacmanFromCol, pacman.getRow(), pacman.getCol());
+        for (int i = 0; i < hits; i++) {
+            Ghost ghost = ghosts.get(ghostGrid.getHit(i));
+
+            if (ghost.isFrightened()) {
+                score += 200;
+                resetGhostPosition(ghost);
+            } else {
+                lives--;
+                if (lives <= 0) {
+                    gameState = GameState.GAME_OVER;
                 } else {
-                    lives--;
-                    if (lives <= 0) {
-                        gameState = GameState.GAME_OVER;
-                    } else {
-                        resetPositions();
-                    }
+                    resetPositions();
                 }
+                return true;
             }
         }
+        return false;
     }
 
     private void resetGhostPosition(Ghost ghost) {
         List<int[]> positions = findGoodGhostPositions();
         if (!positions.isEmpty()) {
             int[] newPos = positions.get(ghost.getId() % positions.size());
-            ghost.setPosition(newPos[0], newPos[1]);
+            placeGhostAt(ghost, newPos[0], newPos[1]);
         }
         ghost.reset();
     }
@@ -488,13 +765,13 @@ public class GameModel {
 
     private void resetPositions() {
         int[] pacmanStart = gameBoard.getPacmanStartPosition();
-        pacman.setPosition(pacmanStart[0], pacmanStart[1]);
+        movePacmanTo(pacmanStart[0], pacmanStart[1]);
 
-        List<int[]> ghostPositions = findGoodGhostPositions();
+        List<int[]> ghostPositions = findGhostPositions(ghosts.size());
         for (int i = 0; i < ghosts.size() && i < ghostPositions.size(); i++) {
             Ghost ghost = ghosts.get(i);
             int[] pos = ghostPositions.get(i);
-            ghost.setPosition(pos[0], pos[1]);
+            placeGhostAt(ghost, pos[0], pos[1]);
         }
     }
 
@@ -507,10 +784,47 @@ public class GameModel {
             }
             activePowerUps.clear();
 
+            publishSnapshot();
             notifyModelChanged();
         }
     }
 
+    private void publishSnapshot() {
+        BoardSnapshot boardSnapshot = gameBoard != null ? gameBoard.createSnapshot() : null;
+
+        GameSnapshot.EntityState pacmanState = null;
+        if (pacman != null) {
+            pacmanState = new GameSnapshot.EntityState(-1, pacman.getRow(), pacman.getCol(),
+                    pacman.getCurrentDirection(), false);
+        }
+
+        List<GameSnapshot.EntityState> ghostStates = new ArrayList<>(ghosts.size());
+        for (Ghost ghost : ghosts) {
+            ghostStates.add(new GameSnapshot.EntityState(ghost.getId(), ghost.getRow(), ghost.getCol(),
+                    ghost.getCurrentDirection(), ghost.isFrightened()));
+        }
+
+        List<GameSnapshot.ActivePowerUp> powerUpStates = new ArrayList<>(activePowerUps.size());
+        for (PowerUp powerUp : activePowerUps) {
+            int remaining = powerUp.getRemainingTimeSeconds();
+            if (powerUp.isActive() && remaining > 0) {
+                powerUpStates.add(new GameSnapshot.ActivePowerUp(powerUp.getType(), remaining));
+            }
+        }
+
+        snapshot = new GameSnapshot(epoch++, boardSnapshot, gameState, score, lives, gameTime,
+                pacmanState, ghostStates, powerUpStates);
+    }
+
+    // Ziarno bieżącej gry: ta sama plansza (new GameBoard(..., seed)) i te same ruchy dają tę samą grę
+    public synchronized long getSeed() {
+        return seed;
+    }
+
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     public interface GameModelListener {
         void onModelChanged(GameModel model);
     }
@@ -532,10 +846,10 @@ public class GameModel {
     public synchronized GameBoard getGameBoard() { return gameBoard; }
     public synchronized Player getPacman() { return pacman; }
     public synchronized List<Ghost> getGhosts() { return new ArrayList<>(ghosts); }
-    public synchronized int getScore() { return score; }
-    public synchronized int getLives() { return lives; }
-    public synchronized long getGameTime() { return gameTime; }
-    public synchronized GameState getGameState() { return gameState; }
+    public int getScore() { return snapshot.getScore(); }
+    public int getLives() { return snapshot.getLives(); }
+    public long getGameTime() { return snapshot.getGameTime(); }
+    public GameState getGameState() { return snapshot.getGameState(); }
 
     public synchronized List<PowerUp> getActivePowerUps() {
         List<PowerUp> filteredPowerUps = new ArrayList<>();
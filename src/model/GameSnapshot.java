@@ -0,0 +1,174 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Niezmienny stan gry publikowany na koniec każdego ticku - odczyt bez blokad
+public final class GameSnapshot {
+
+    public static final class EntityState {
+        private final int id;
+        private final int row;
+        private final int col;
+        private final Player.Direction direction;
+        private final boolean frightened;
+
+        EntityState(int id, int row, int col, Player.Direction direction, boolean frightened) {
+            this.id = id;
+            this.row = row;
+            this.col = col;
+            this.direction = direction;
+            this.frightened = frightened;
+        }
+
+        public int getId() { return id; }
+        public int getRow() { return row; }
+        public int getCol() { return col; }
+        public Player.Direction getDirection() { return direction; }
+        public boolean isFrightened() { return frightened; }
+    }
+
+    public static final class ActivePowerUp {
+        private final PowerUp.PowerUpType type;
+        private final int remainingSeconds;
+
+        ActivePowerUp(PowerUp.PowerUpType type, int remainingSeconds) {
+            this.type = type;
+            this.remainingSeconds = remainingSeconds;
+        }
+
+        public PowerUp.PowerUpType getType() { return type; }
+        public int getRemainingTimeSeconds() { return remainingSeconds; }
+    }
+
+    private final long epoch;
+    private final BoardSnapshot board;
+    private final GameModel.GameState gameState;
+    private final int score;
+    private final int lives;
+    private final long gameTime;
+    private final EntityState pacman;
+    private final List<EntityState> ghosts;
+    private final List<ActivePowerUp> activePowerUps;
+    // Pola duchów bez pudełkowania: wpisy (pole << GHOST_ID_BITS) | id pogrupowane sortowaniem
+    // przez zliczanie według pasów wierszy (bucketStart), wewnątrz pasa posortowane - budowa O(n),
+    // wyszukiwanie binarne w jednym pasie
+    private static final int GHOST_ID_BITS = 16;
+    private static final long GHOST_ID_MASK = (1L << GHOST_ID_BITS) - 1;
+    private static final int SMALL_BUCKET = 32;
+    private final long[] ghostCells;
+    private final int[] bucketStart;
+    private final int bucketShift;
+
+    GameSnapshot(long epoch, BoardSnapshot board, GameModel.GameState gameState, int score, int lives,
+                 long gameTime, EntityState pacman, List<EntityState> ghosts, List<ActivePowerUp> activePowerUps) {
+        this.epoch = epoch;
+        this.board = board;
+        this.gameState = gameState;
+        this.score = score;
+        this.lives = lives;
+        this.gameTime = gameTime;
+        this.pacman = pacman;
+        this.ghosts = Collections.unmodifiableList(ghosts);
+        this.activePowerUps = Collections.unmodifiableList(activePowerUps);
+        int cols = board != null ? board.getCols() : 1;
+        int rows = board != null ? board.getRows() : 1;
+        this.bucketShift = bucketShift(rows, ghosts.size());
+        this.bucketStart = new int[(rows >> bucketShift) + 2];
+        this.ghostCells = board != null ? packGhostCells(ghosts, cols) : new long[0];
+    }
+
+    // Pasy po 2^shift wierszy - najwyżej tyle pasów, ilu duchów (co najmniej 16)
+    private static int bucketShift(int rows, int ghostCount) {
+        int shift = 0;
+        while ((rows >> shift) + 1 > Math.max(16, ghostCount)) {
+            shift++;
+        }
+        return shift;
+    }
+
+    private long[] packGhostCells(List<EntityState> ghosts, int cols) {
+        int count = ghosts.size();
+        for (EntityState ghost : ghosts) {
+            bucketStart[(ghost.getRow() >> bucketShift) + 1]++;
+        }
+        for (int bucket = 1; bucket < bucketStart.length; bucket++) {
+            bucketStart[bucket] += bucketStart[bucket - 1];
+        }
+
+        long[] cells = new long[count];
+        int[] fill = Arrays.copyOf(bucketStart, bucketStart.length - 1);
+        for (EntityState ghost : ghosts) {
+            long cell = (long) ghost.getRow() * cols + ghost.getCol();
+            cells[fill[ghost.getRow() >> bucketShift]++] = cell << GHOST_ID_BITS | ghost.getId();
+        }
+
+        for (int bucket = 0; bucket + 1 < bucketStart.length; bucket++) {
+            sortBucket(cells, bucketStart[bucket], bucketStart[bucket + 1]);
+        }
+        return cells;
+    }
+
+    private static void sortBucket(long[] cells, int from, int to) {
+        if (to - from > SMALL_BUCKET) {
+            Arrays.sort(cells, from, to);
+            return;
+        }
+        for (int i = from + 1; i < to; i++) {
+            long current = cells[i];
+            int j = i - 1;
+            while (j >= from && cells[j] > current) {
+                cells[j + 1] = cells[j];
+                j--;
+            }
+            cells[j + 1] = current;
+        }
+    }
+
+    public long getEpoch() { return epoch; }
+    public BoardSnapshot getBoard() { return board; }
+    public GameModel.GameState getGameState() { return gameState; }
+    public int getScore() { return score; }
+    public int getLives() { return lives; }
+    public long getGameTime() { return gameTime; }
+    public EntityState getPacman() { return pacman; }
+    public List<EntityState> getGhosts() { return ghosts; }
+    public List<ActivePowerUp> getActivePowerUps() { return activePowerUps; }
+
+    public boolean isPacmanAt(int row, int col) {
+        return pacman != null && pacman.getRow() == row && pacman.getCol() == col;
+    }
+
+    public int getGhostAt(int row, int col) {
+        if (board == null || !board.isValidPosition(row, col)) {
+            return -1;
+        }
+        long key = ((long) row * board.getCols() + col) << GHOST_ID_BITS;
+        int bucket = row >> bucketShift;
+        // Pierwszy wpis nie mniejszy niż key - duch o najmniejszym id na tym polu
+        int position = Arrays.binarySearch(ghostCells, bucketStart[bucket], bucketStart[bucket + 1], key);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        if (position < bucketStart[bucket + 1] && ghostCells[position] >>> GHOST_ID_BITS == key >>> GHOST_ID_BITS) {
+            return (int) (ghostCells[position] & GHOST_ID_MASK);
+        }
+        return -1;
+    }
+
+    // Komórka do narysowania: teren z planszy przykryty postacią, jeśli jakaś tam stoi
+    public Cell getDisplayCell(int row, int col) {
+        if (board == null) {
+            return null;
+        }
+        if (isPacmanAt(row, col)) {
+            return Cell.of(Cell.CellType.PACMAN);
+        }
+        int ghostId = getGhostAt(row, col);
+        if (ghostId >= 0) {
+            return Cell.of(Cell.CellType.GHOST, null, ghostId);
+        }
+        return board.getCell(row, col);
+    }
+}
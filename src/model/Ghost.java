@@ -1,7 +1,7 @@
 package model;
 
 import java.io.Serializable;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class Ghost implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -10,6 +10,10 @@ public class Ghost implements Serializable {
         RED, PINK, CYAN, ORANGE
     }
 
+    private enum Strategy {
+        CHASE, AMBUSH, WANDER, FLEE
+    }
+
     private final int id;
     private int row;
     private int col;
@@ -19,21 +23,38 @@ public class Ghost implements Serializable {
     private boolean isFrozen;
     private long lastPowerUpCreation;
     private long lastDirectionChange;
-    private transient Random random; // KLUCZOWE: transient dla Serializable
+    private transient SplittableRandom random; // KLUCZOWE: transient dla Serializable
+    // Własny strumień losowy ducha - te same ziarno i wejście dają te same decyzje
+    private final long randomSeed;
+    private final GameClock clock;
+    private Strategy strategy;
+    private int ambushSteps;
 
     private static final long POWERUP_CREATION_INTERVAL = 2500;
     private static final double POWERUP_CREATION_CHANCE = 0.5;
     private static final long DIRECTION_CHANGE_INTERVAL = 400;
+    private static final int FLEE_DISTANCE = 8;
+
+    // Przesunięcia dla Player.Direction.ordinal(): UP, DOWN, LEFT, RIGHT
+    private static final int[] DELTA_ROW = {-1, 1, 0, 0};
+    private static final int[] DELTA_COL = {0, 0, -1, 1};
+    private static final int[] OPPOSITE = {1, 0, 3, 2};
 
     public Ghost(int id, int startRow, int startCol) {
+        this(id, startRow, startCol, System.currentTimeMillis() + id * 1000L, new WallClock());
+    }
+
+    public Ghost(int id, int startRow, int startCol, long randomSeed, GameClock clock) {
         this.id = id;
+        this.randomSeed = randomSeed;
+        this.clock = clock;
         this.row = startRow;
         this.col = startCol;
         this.color = GhostColor.RED;
         this.isFrightened = false;
         this.isFrozen = false;
-        this.lastPowerUpCreation = System.currentTimeMillis();
-        this.lastDirectionChange = System.currentTimeMillis();
+        this.lastPowerUpCreation = clock.currentTimeMillis();
+        this.lastDirectionChange = clock.currentTimeMillis();
 
         // BEZPIECZNA INICJALIZACJA RANDOM
         initializeRandom();
@@ -42,14 +63,9 @@ public class Ghost implements Serializable {
         this.currentDirection = getRandomDirection();
     }
 
-    // NOWA METODA: Bezpieczna inicjalizacja Random
+    // Po deserializacji strumień zaczyna się od początku ziarna
     private void initializeRandom() {
-        try {
-            this.random = new Random(System.currentTimeMillis() + id * 1000);
-        } catch (Exception e) {
-            // Fallback w przypadku błędu
-            this.random = new Random();
-        }
+        this.random = new SplittableRandom(randomSeed);
     }
 
     // METODA SPRAWDZAJĄCA czy Random jest zainicjowany
@@ -75,69 +91,136 @@ public class Ghost implements Serializable {
     public void setColor(GhostColor color) { this.color = color; }
 
     public boolean isFrightened() { return isFrightened; }
-    public void setFrightened(boolean frightened) { this.isFrightened = frightened; }
+    public void setFrightened(boolean frightened) {
+        if (frightened != isFrightened) {
+            this.strategy = null;
+        }
+        this.isFrightened = frightened;
+    }
 
     public boolean isFrozen() { return isFrozen; }
     public void setFrozen(boolean frozen) { this.isFrozen = frozen; }
 
-    public Player.Direction calculateNextMove(GameBoard board, Player pacman) {
+    // W korytarzu duch idzie dalej bez decyzji; na skrzyżowaniu strategia (kogo/dokąd gonić) zmienia się
+    // co DIRECTION_CHANGE_INTERVAL, a kierunek liczony jest z pola odległości - kilka odczytów O(1)
+    // Czyta tylko planszę, Pac-Mana i wspólne dane - zmienia wyłącznie stan tego ducha, więc duchy
+    // mogą decydować równolegle; now to czas ticka, ten sam dla wszystkich
+    public Player.Direction calculateNextMove(GameBoard board, Player pacman, DistanceField field,
+                                              JunctionGraph graph, long now) {
         ensureRandomInitialized(); // SPRAWDŹ czy Random jest OK
 
         if (isFrozen) {
             return currentDirection;
         }
 
-        long currentTime = System.currentTimeMillis();
-        boolean shouldChangeDirection = (currentTime - lastDirectionChange) >= DIRECTION_CHANGE_INTERVAL;
+        int index = board.indexOf(row, col);
+        if (graph != null && strategy != null && currentDirection != null && graph.isCorridor(index)) {
+            Player.Direction along = followCorridor(board, index);
+            if (along != null) {
+                this.currentDirection = along;
+                return along;
+            }
+        }
 
-        if (!shouldChangeDirection) {
-            return currentDirection;
+        if (strategy == null || (now - lastDirectionChange) >= DIRECTION_CHANGE_INTERVAL) {
+            strategy = chooseStrategy(board, pacman, field, graph, index);
+            lastDirectionChange = now;
         }
 
         Player.Direction newDirection;
-
         try {
-            if (isFrightened) {
-                newDirection = getRandomDirection();
-            } else {
-                switch (id) {
-                    case 0: // Czerwony - goni bezpośrednio
-                        newDirection = calculateDirectionTowardsPacman(pacman);
-                        break;
-                    case 1: // Różowy - próbuje obejść
-                        newDirection = random.nextDouble() < 0.8 ?
-                                calculateAmbushDirection(pacman) :
-                                calculateDirectionTowardsPacman(pacman);
-                        break;
-                    case 2: // Niebieski - chaotyczny
-                        newDirection = random.nextDouble() < 0.6 ?
-                                calculateDirectionTowardsPacman(pacman) :
-                                getRandomDirection();
-                        break;
-                    case 3: // Pomarańczowy - utrzymuje dystans
-                        int distance = Math.abs(pacman.getRow() - row) + Math.abs(pacman.getCol() - col);
-                        if (distance < 5) {
-                            newDirection = random.nextDouble() < 0.4 ?
-                                    calculateFleeDirection(pacman) :
-                                    calculateDirectionTowardsPacman(pacman);
-                        } else {
-                            newDirection = calculateDirectionTowardsPacman(pacman);
-                        }
-                        break;
-                    default:
-                        newDirection = calculateDirectionTowardsPacman(pacman);
-                }
-            }
+            newDirection = steer(board, pacman, field);
         } catch (Exception e) {
             // Fallback w przypadku błędu - idź w stronę Pacmana
             newDirection = calculateDirectionTowardsPacman(pacman);
         }
 
-        this.lastDirectionChange = currentTime;
         this.currentDirection = newDirection;
         return newDirection;
     }
 
+    // Jedyny otwarty kierunek poza zawróceniem; null, gdy duch nie wszedł w korytarz jego końcem
+    private Player.Direction followCorridor(GameBoard board, int index) {
+        int mask = board.getNeighborMask(index) & ~(1 << OPPOSITE[currentDirection.ordinal()]);
+        if (Integer.bitCount(mask) != 1) {
+            return null;
+        }
+        return Player.Direction.values()[Integer.numberOfTrailingZeros(mask)];
+    }
+
+    private Strategy chooseStrategy(GameBoard board, Player pacman, DistanceField field,
+                                    JunctionGraph graph, int index) {
+        if (isFrightened) {
+            return Strategy.WANDER;
+        }
+        // W roju charakter powtarza się co cztery duchy
+        switch (id % 4) {
+            case 0: // Czerwony - goni bezpośrednio
+                return Strategy.CHASE;
+            case 1: // Różowy - próbuje obejść
+                if (random.nextDouble() < 0.8) {
+                    ambushSteps = 3 + random.nextInt(3); // 3-5 kroków
+                    return Strategy.AMBUSH;
+                }
+                return Strategy.CHASE;
+            case 2: // Niebieski - chaotyczny
+                return random.nextDouble() < 0.6 ? Strategy.CHASE : Strategy.WANDER;
+            case 3: // Pomarańczowy - utrzymuje dystans
+                int distance = graph != null
+                        ? graph.distance(index, board.indexOf(pacman.getRow(), pacman.getCol()))
+                        : JunctionGraph.UNREACHABLE;
+                if (distance == JunctionGraph.UNREACHABLE) {
+                    distance = field.distanceAt(row, col);
+                }
+                if (distance == DistanceField.UNREACHABLE) {
+                    distance = Math.abs(pacman.getRow() - row) + Math.abs(pacman.getCol() - col);
+                }
+                return distance < 5 && random.nextDouble() < 0.4 ? Strategy.FLEE : Strategy.CHASE;
+            default:
+                return Strategy.CHASE;
+        }
+    }
+
+    private Player.Direction steer(GameBoard board, Player pacman, DistanceField field) {
+        Player.Direction direction;
+        switch (strategy) {
+            case CHASE:
+                direction = field.bestStep(row, col, true);
+                return direction != null ? direction : calculateDirectionTowardsPacman(pacman);
+            case FLEE:
+                direction = calculateFleeDirection(board, pacman);
+                if (direction == null) {
+                    direction = field.bestStep(row, col, false);
+                }
+                return direction != null ? direction : calculateFleeDirection(pacman);
+            case AMBUSH:
+                direction = calculateAmbushDirection(board, pacman);
+                return direction != null ? direction : calculateDirectionTowardsPacman(pacman);
+            default:
+                return wander(board);
+        }
+    }
+
+    // Idzie prosto, dopóki może; na ścianie losuje jeden z otwartych kierunków
+    private Player.Direction wander(GameBoard board) {
+        int index = board.indexOf(row, col);
+        if (currentDirection != null && board.canMove(index, currentDirection)) {
+            return currentDirection;
+        }
+        int mask = board.getNeighborMask(index);
+        int open = Integer.bitCount(mask);
+        if (open == 0) {
+            return getRandomDirection();
+        }
+        int pick = random.nextInt(open);
+        for (Player.Direction direction : Player.Direction.values()) {
+            if ((mask & (1 << direction.ordinal())) != 0 && pick-- == 0) {
+                return direction;
+            }
+        }
+        return getRandomDirection();
+    }
+
     private Player.Direction calculateDirectionTowardsPacman(Player pacman) {
         ensureRandomInitialized();
 
@@ -173,37 +256,36 @@ public class Ghost implements Serializable {
         }
     }
 
-    private Player.Direction calculateAmbushDirection(Player pacman) {
-        ensureRandomInitialized();
+    // Cel ucieczki: FLEE_DISTANCE pól od ducha w stronę przeciwną do Pac-Mana, droga przez A*
+    private Player.Direction calculateFleeDirection(GameBoard board, Player pacman) {
+        int deltaRow = Integer.signum(row - pacman.getRow());
+        int deltaCol = Integer.signum(col - pacman.getCol());
+        if (deltaRow == 0 && deltaCol == 0) {
+            return null;
+        }
 
+        int targetRow = clamp(row + deltaRow * FLEE_DISTANCE, board.getRows());
+        int targetCol = clamp(col + deltaCol * FLEE_DISTANCE, board.getCols());
+        return PathFinder.forCurrentThread().firstStep(board, row, col, targetRow, targetCol);
+    }
+
+    // Cel kilka pól przed Pac-Manem w kierunku jego ruchu, droga przez A*
+    private Player.Direction calculateAmbushDirection(GameBoard board, Player pacman) {
         int targetRow = pacman.getRow();
         int targetCol = pacman.getCol();
 
         Player.Direction pacmanDir = pacman.getCurrentDirection();
         if (pacmanDir != null) {
-            int prediction = 3;
-            try {
-                prediction = 3 + random.nextInt(3); // 3-5 kroków
-            } catch (Exception e) {
-                prediction = 4; // Fallback
-            }
-
-            switch (pacmanDir) {
-                case UP: targetRow -= prediction; break;
-                case DOWN: targetRow += prediction; break;
-                case LEFT: targetCol -= prediction; break;
-                case RIGHT: targetCol += prediction; break;
-            }
+            targetRow += DELTA_ROW[pacmanDir.ordinal()] * ambushSteps;
+            targetCol += DELTA_COL[pacmanDir.ordinal()] * ambushSteps;
         }
 
-        int deltaRow = targetRow - this.row;
-        int deltaCol = targetCol - this.col;
+        return PathFinder.forCurrentThread().firstStep(board, row, col,
+                clamp(targetRow, board.getRows()), clamp(targetCol, board.getCols()));
+    }
 
-        if (Math.abs(deltaRow) > Math.abs(deltaCol)) {
-            return deltaRow > 0 ? Player.Direction.DOWN : Player.Direction.UP;
-        } else {
-            return deltaCol > 0 ? Player.Direction.RIGHT : Player.Direction.LEFT;
-        }
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
     }
 
     private Player.Direction getRandomDirection() {
@@ -221,7 +303,7 @@ public class Ghost implements Serializable {
     public boolean tryCreatePowerUp(GameBoard board) {
         ensureRandomInitialized();
 
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.currentTimeMillis();
         if (currentTime - lastPowerUpCreation >= POWERUP_CREATION_INTERVAL) {
             try {
                 if (random.nextDouble() < POWERUP_CREATION_CHANCE) {
@@ -243,6 +325,7 @@ public class Ghost implements Serializable {
     public void reset() {
         this.isFrightened = false;
         this.isFrozen = false;
+        this.strategy = null;
         ensureRandomInitialized();
         this.currentDirection = getRandomDirection();
     }
@@ -0,0 +1,96 @@
+package model;
+
+// Kopiec minimalny na identyfikatorach 0..capacity-1 z kluczem int i zmianą klucza w O(log n);
+// position[id] pozwala znaleźć element w kopcu bez przeszukiwania
+class IndexedIntHeap {
+
+    static final int ABSENT = -1;
+
+    private final int[] heap;
+    private final int[] keys;
+    private final int[] position;
+    private int size;
+
+    IndexedIntHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.keys = new int[capacity];
+        this.position = new int[capacity];
+        this.size = 0;
+    }
+
+    // position[] nie jest czyszczone - wywołujący wie (np. ze znacznika pokolenia), które id są w kopcu
+    void clear() {
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void insert(int id, int key) {
+        keys[id] = key;
+        heap[size] = id;
+        position[id] = size;
+        siftUp(size++);
+    }
+
+    // Tylko dla id, które są w kopcu, i klucza nie większego niż obecny
+    void decreaseKey(int id, int key) {
+        keys[id] = key;
+        siftUp(position[id]);
+    }
+
+    int removeMin() {
+        int min = heap[0];
+        position[min] = ABSENT;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    boolean contains(int id) {
+        return position[id] != ABSENT;
+    }
+
+    private void siftUp(int index) {
+        int id = heap[index];
+        int key = keys[id];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = id;
+        position[id] = index;
+    }
+
+    private void siftDown(int index) {
+        int id = heap[index];
+        int key = keys[id];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (keys[heap[child]] >= key) {
+                break;
+            }
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = id;
+        position[id] = index;
+    }
+}
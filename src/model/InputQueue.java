@@ -0,0 +1,128 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bezblokadowa kolejka kierunków: wielu producentów (EDT, boty), jeden konsument (wątek logiki
+// na początku ticka). Pierścień o stałej pojemności z numerem sekwencji w każdym slocie -
+// producent rezerwuje slot przez CAS na ogonie i publikuje wpis zapisem sekwencji.
+// Przy zapełnionej kolejce nowy kierunek jest odrzucany i liczony.
+public class InputQueue {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final Player.Direction[] DIRECTIONS = Player.Direction.values();
+    // Opóźnienia w kubełkach po LATENCY_BUCKET_NANOS; ostatni kubełek zbiera wszystko powyżej
+    private static final long LATENCY_BUCKET_NANOS = 100_000L;
+    private static final int LATENCY_BUCKETS = 2_500;
+
+    public interface Consumer {
+        void accept(Player.Direction direction, long enqueuedNanos);
+    }
+
+    private final int mask;
+    private final AtomicLongArray sequence;
+    private final byte[] directions;
+    private final long[] enqueuedAt;
+    private final AtomicLong tail = new AtomicLong();
+    // Tylko wątek konsumenta
+    private long head;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BUCKETS + 1);
+    private final AtomicLong applied = new AtomicLong();
+
+    public InputQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.sequence = new AtomicLongArray(size);
+        this.directions = new byte[size];
+        this.enqueuedAt = new long[size];
+        for (int i = 0; i < size; i++) {
+            sequence.set(i, i);
+        }
+    }
+
+    // Z dowolnego wątku, bez blokowania; false, gdy kolejka jest pełna
+    public boolean offer(Player.Direction direction) {
+        long now = System.nanoTime();
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long difference = sequence.getAcquire(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    directions[slot] = (byte) direction.ordinal();
+                    enqueuedAt[slot] = now;
+                    sequence.setRelease(slot, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    // Tylko z wątku konsumenta: oddaje wszystkie opublikowane wpisy w kolejności dodania
+    public int drain(Consumer consumer) {
+        int count = 0;
+        while (true) {
+            int slot = (int) head & mask;
+            if (sequence.getAcquire(slot) != head + 1) {
+                return count;
+            }
+            Player.Direction direction = DIRECTIONS[directions[slot]];
+            long enqueued = enqueuedAt[slot];
+            sequence.setRelease(slot, head + mask + 1);
+            head++;
+            count++;
+            consumer.accept(direction, enqueued);
+        }
+    }
+
+    // Czas od offer do zastosowania kierunku przez model
+    public void recordLatency(long latencyNanos) {
+        int bucket = (int) Math.min(LATENCY_BUCKETS, Math.max(0, latencyNanos) / LATENCY_BUCKET_NANOS);
+        latencyBuckets.incrementAndGet(bucket);
+        applied.incrementAndGet();
+    }
+
+    // Górna granica kubełka, w którym wypada percentyl (0-100); dokładność LATENCY_BUCKET_NANOS
+    public long getLatencyPercentileNanos(double percentile) {
+        long total = applied.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int bucket = 0; bucket <= LATENCY_BUCKETS; bucket++) {
+            seen += latencyBuckets.get(bucket);
+            if (seen >= rank) {
+                return (bucket + 1) * LATENCY_BUCKET_NANOS;
+            }
+        }
+        return (LATENCY_BUCKETS + 1) * LATENCY_BUCKET_NANOS;
+    }
+
+    public long getAppliedCount() {
+        return applied.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public void resetLatency() {
+        for (int bucket = 0; bucket <= LATENCY_BUCKETS; bucket++) {
+            latencyBuckets.set(bucket, 0);
+        }
+        applied.set(0);
+    }
+}
@@ -0,0 +1,109 @@
+package model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+// Mapa int -> int z adresowaniem otwartym (sondowanie liniowe) dla kluczy >= 0, bez pudełkowania.
+// Usuwanie przesuwa dalsze elementy łańcucha wstecz, więc nie zostawia znaczników.
+class IntIntMap implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    static final int MISSING = -1;
+
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    IntIntMap() {
+        allocate(16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, FREE);
+    }
+
+    private int slotOf(int key) {
+        int hash = key * 0x9E3779B1;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    int get(int key) {
+        for (int slot = slotOf(key); keys[slot] != FREE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    boolean containsKey(int key) {
+        return get(key) != MISSING;
+    }
+
+    // Zwraca poprzednią wartość albo MISSING
+    int put(int key, int value) {
+        int slot = slotOf(key);
+        for (; keys[slot] != FREE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length / 2) {
+            rehash(keys.length * 2);
+        }
+        return MISSING;
+    }
+
+    void remove(int key) {
+        int slot = slotOf(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == FREE) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        size--;
+        // Element dalej w łańcuchu wraca na zwolnione miejsce, jeśli jego slot domowy na to pozwala
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            int home = slotOf(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = FREE;
+    }
+
+    void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
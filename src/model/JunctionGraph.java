@@ -0,0 +1,259 @@
+package model;
+
+import java.util.Arrays;
+
+// Labirynt skompresowany do grafu: węzły to skrzyżowania i ślepe zaułki (pola o liczbie wyjść
+// różnej od 2), krawędzie to korytarze z długością. Każde pole korytarza zna swoją krawędź
+// i odległość od jej początku, więc odległość między dowolnymi polami to kilka odczytów
+// z tablicy odległości między węzłami (liczonej, gdy węzłów jest nie więcej niż ALL_PAIRS_MAX_NODES).
+public class JunctionGraph {
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    public static final int ALL_PAIRS_MAX_NODES = 2048;
+
+    private static final int NO_CELL = -1;
+    private static final int INFINITY = Integer.MAX_VALUE / 4;
+    private static final Player.Direction[] DIRECTIONS = Player.Direction.values();
+
+    private final int cellCount;
+    // >= 0: krawędź korytarza; NO_CELL: ściana albo pętla bez węzłów; <= -2: węzeł -2 - cellEdge
+    private final int[] cellEdge;
+    private final int[] cellOffset;
+    private int nodeCount;
+    private int[] nodeCell;
+    private int edgeCount;
+    private int[] edgeFrom;
+    private int[] edgeTo;
+    private int[] edgeLength;
+    // Odległości węzeł-węzeł (nodeCount x nodeCount) albo null przy zbyt dużym grafie
+    private int[] nodeDistances;
+
+    private JunctionGraph(int cellCount) {
+        this.cellCount = cellCount;
+        this.cellEdge = new int[cellCount];
+        this.cellOffset = new int[cellCount];
+        this.nodeCell = new int[64];
+        this.edgeFrom = new int[64];
+        this.edgeTo = new int[64];
+        this.edgeLength = new int[64];
+        Arrays.fill(cellEdge, NO_CELL);
+    }
+
+    public static JunctionGraph build(GameBoard board) {
+        JunctionGraph graph = new JunctionGraph(board.size());
+        graph.findNodes(board);
+        graph.traceCorridors(board);
+        if (graph.nodeCount <= ALL_PAIRS_MAX_NODES) {
+            graph.computeNodeDistances();
+        }
+        return graph;
+    }
+
+    private void findNodes(GameBoard board) {
+        for (int index = 0; index < cellCount; index++) {
+            if (board.isPassable(index) && Integer.bitCount(board.getNeighborMask(index)) != 2) {
+                if (nodeCount == nodeCell.length) {
+                    nodeCell = Arrays.copyOf(nodeCell, nodeCount * 2);
+                }
+                cellEdge[index] = -2 - nodeCount;
+                nodeCell[nodeCount++] = index;
+            }
+        }
+    }
+
+    // Z każdego węzła w każdą otwartą stronę, aż do następnego węzła; korytarz przechodzony
+    // z drugiego końca jest już oznaczony i zostaje pominięty
+    private void traceCorridors(GameBoard board) {
+        for (int node = 0; node < nodeCount; node++) {
+            int start = nodeCell[node];
+            int mask = board.getNeighborMask(start);
+            for (Player.Direction direction : DIRECTIONS) {
+                if ((mask & (1 << direction.ordinal())) == 0) {
+                    continue;
+                }
+                int first = board.neighborIndex(start, direction);
+                if (isNode(first)) {
+                    if (node < nodeAt(first)) {
+                        addEdge(node, nodeAt(first), 1);
+                    }
+                    continue;
+                }
+                if (cellEdge[first] != NO_CELL) {
+                    continue;
+                }
+                traceCorridor(board, node, start, first);
+            }
+        }
+    }
+
+    private void traceCorridor(GameBoard board, int fromNode, int start, int first) {
+        int edge = edgeCount;
+        int previous = start;
+        int current = first;
+        int length = 1;
+        while (!isNode(current)) {
+            cellEdge[current] = edge;
+            cellOffset[current] = length;
+            int next = otherExit(board, current, previous);
+            previous = current;
+            current = next;
+            length++;
+        }
+        addEdge(fromNode, nodeAt(current), length);
+    }
+
+    private static int otherExit(GameBoard board, int index, int previous) {
+        int mask = board.getNeighborMask(index);
+        for (Player.Direction direction : DIRECTIONS) {
+            if ((mask & (1 << direction.ordinal())) != 0) {
+                int next = board.neighborIndex(index, direction);
+                if (next != previous) {
+                    return next;
+                }
+            }
+        }
+        return previous;
+    }
+
+    private void addEdge(int from, int to, int length) {
+        if (edgeCount == edgeFrom.length) {
+            edgeFrom = Arrays.copyOf(edgeFrom, edgeCount * 2);
+            edgeTo = Arrays.copyOf(edgeTo, edgeCount * 2);
+            edgeLength = Arrays.copyOf(edgeLength, edgeCount * 2);
+        }
+        edgeFrom[edgeCount] = from;
+        edgeTo[edgeCount] = to;
+        edgeLength[edgeCount] = length;
+        edgeCount++;
+    }
+
+    // Dijkstra z każdego węzła po listach sąsiedztwa w układzie CSR
+    private void computeNodeDistances() {
+        int[] adjacencyStart = new int[nodeCount + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            adjacencyStart[edgeFrom[edge] + 1]++;
+            adjacencyStart[edgeTo[edge] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            adjacencyStart[node + 1] += adjacencyStart[node];
+        }
+        int[] fill = Arrays.copyOf(adjacencyStart, nodeCount);
+        int[] adjacentNode = new int[2 * edgeCount];
+        int[] adjacentLength = new int[2 * edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            adjacentNode[fill[edgeFrom[edge]]] = edgeTo[edge];
+            adjacentLength[fill[edgeFrom[edge]]++] = edgeLength[edge];
+            adjacentNode[fill[edgeTo[edge]]] = edgeFrom[edge];
+            adjacentLength[fill[edgeTo[edge]]++] = edgeLength[edge];
+        }
+
+        nodeDistances = new int[nodeCount * nodeCount];
+        Arrays.fill(nodeDistances, INFINITY);
+        IndexedIntHeap heap = new IndexedIntHeap(nodeCount);
+        boolean[] done = new boolean[nodeCount];
+
+        for (int source = 0; source < nodeCount; source++) {
+            int row = source * nodeCount;
+            Arrays.fill(done, false);
+            heap.clear();
+            nodeDistances[row + source] = 0;
+            heap.insert(source, 0);
+
+            while (!heap.isEmpty()) {
+                int node = heap.removeMin();
+                done[node] = true;
+                for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+                    int next = adjacentNode[i];
+                    int distance = nodeDistances[row + node] + adjacentLength[i];
+                    if (done[next] || distance >= nodeDistances[row + next]) {
+                        continue;
+                    }
+                    boolean queued = nodeDistances[row + next] < INFINITY;
+                    nodeDistances[row + next] = distance;
+                    if (queued) {
+                        heap.decreaseKey(next, distance);
+                    } else {
+                        heap.insert(next, distance);
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean isNode(int index) {
+        return cellEdge[index] <= -2;
+    }
+
+    // Pole korytarza - duch idzie dalej bez podejmowania decyzji
+    public boolean isCorridor(int index) {
+        return cellEdge[index] >= 0;
+    }
+
+    private int nodeAt(int index) {
+        return -2 - cellEdge[index];
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public boolean hasNodeDistances() {
+        return nodeDistances != null;
+    }
+
+    // Długość najkrótszej drogi między polami w O(1); UNREACHABLE, gdy graf jej nie zna
+    public int distance(int fromIndex, int toIndex) {
+        if (nodeDistances == null || cellEdge[fromIndex] == NO_CELL || cellEdge[toIndex] == NO_CELL) {
+            return UNREACHABLE;
+        }
+        if (fromIndex == toIndex) {
+            return 0;
+        }
+
+        long best = INFINITY;
+        int fromEdge = cellEdge[fromIndex];
+        int toEdge = cellEdge[toIndex];
+        if (fromEdge >= 0 && fromEdge == toEdge) {
+            best = Math.abs(cellOffset[fromIndex] - cellOffset[toIndex]);
+        }
+
+        for (int a = 0; a < 2; a++) {
+            int fromNode = endpoint(fromIndex, a);
+            if (fromNode < 0) {
+                continue;
+            }
+            int fromCost = endpointCost(fromIndex, a);
+            for (int b = 0; b < 2; b++) {
+                int toNode = endpoint(toIndex, b);
+                if (toNode < 0) {
+                    continue;
+                }
+                long total = (long) fromCost + nodeDistances[fromNode * nodeCount + toNode]
+                        + endpointCost(toIndex, b);
+                best = Math.min(best, total);
+            }
+        }
+        return best >= INFINITY ? UNREACHABLE : (int) best;
+    }
+
+    // Węzeł pola (side 0) albo jeden z dwóch końców jego korytarza; -1, gdy go nie ma
+    private int endpoint(int index, int side) {
+        int edge = cellEdge[index];
+        if (edge < 0) {
+            return side == 0 ? -2 - edge : -1;
+        }
+        return side == 0 ? edgeFrom[edge] : edgeTo[edge];
+    }
+
+    private int endpointCost(int index, int side) {
+        int edge = cellEdge[index];
+        if (edge < 0) {
+            return 0;
+        }
+        return side == 0 ? cellOffset[index] : edgeLength[edge] - cellOffset[index];
+    }
+}
@@ -0,0 +1,172 @@
+package model;
+
+import java.util.Arrays;
+
+// A* po ścianach planszy w oknie wokół pola startowego. Tablice robocze rosną do rozmiaru okna
+// i są ważne według znacznika pokolenia, więc zapytanie po rozgrzaniu nic nie alokuje.
+// Każdy wątek ma własną instancję (forCurrentThread) - zapytania z wielu wątków się nie blokują.
+public class PathFinder {
+
+    public static final int DEFAULT_RADIUS = 48;
+
+    private static final Player.Direction[] DIRECTIONS = Player.Direction.values();
+    private static final int[] DELTA_ROW = {-1, 1, 0, 0};
+    private static final int[] DELTA_COL = {0, 0, -1, 1};
+    private static final int[] OPPOSITE = {1, 0, 3, 2};
+
+    private static final ThreadLocal<PathFinder> PER_THREAD = ThreadLocal.withInitial(PathFinder::new);
+
+    private final int radius;
+    private int[] cost;
+    private int[] stamps;
+    // Kierunek (ordinal), którym dotarto do pola - z niego odtwarzana jest droga
+    private byte[] arrivedBy;
+    private IndexedIntHeap open;
+    private int stamp;
+
+    private int top;
+    private int left;
+    private int height;
+    private int width;
+    private int lastPathLength;
+    private int lastExpanded;
+
+    public PathFinder() {
+        this(DEFAULT_RADIUS);
+    }
+
+    public PathFinder(int radius) {
+        this.radius = radius;
+        this.cost = new int[0];
+        this.stamps = new int[0];
+        this.arrivedBy = new byte[0];
+        this.open = new IndexedIntHeap(0);
+        this.stamp = 0;
+    }
+
+    public static PathFinder forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    // Pierwszy krok najkrótszej drogi do celu; gdy cel leży poza oknem albo jest nieosiągalny -
+    // pierwszy krok do osiągalnego pola najbliższego celowi. null, gdy nie ma dokąd iść
+    public Player.Direction firstStep(GameBoard board, int fromRow, int fromCol, int toRow, int toCol) {
+        int end = search(board, fromRow, fromCol, toRow, toCol);
+        if (end < 0) {
+            return null;
+        }
+
+        int start = local(fromRow, fromCol);
+        int length = 0;
+        int step = -1;
+        int current = end;
+        while (current != start) {
+            step = arrivedBy[current];
+            int back = OPPOSITE[step];
+            current = local(top + current / width + DELTA_ROW[back], left + current % width + DELTA_COL[back]);
+            length++;
+        }
+        lastPathLength = length;
+        return step >= 0 ? DIRECTIONS[step] : null;
+    }
+
+    // Długość drogi z ostatniego firstStep (do celu albo do najbliższego mu osiągalnego pola)
+    public int getLastPathLength() {
+        return lastPathLength;
+    }
+
+    public int getLastExpanded() {
+        return lastExpanded;
+    }
+
+    private int search(GameBoard board, int fromRow, int fromCol, int toRow, int toCol) {
+        if (!board.isValidPosition(fromRow, fromCol)) {
+            return -1;
+        }
+
+        top = Math.max(0, fromRow - radius);
+        left = Math.max(0, fromCol - radius);
+        height = Math.min(board.getRows(), fromRow + radius + 1) - top;
+        width = Math.min(board.getCols(), fromCol + radius + 1) - left;
+        ensureCapacity(height * width);
+        nextStamp();
+        open.clear();
+        lastExpanded = 0;
+        lastPathLength = 0;
+
+        int start = local(fromRow, fromCol);
+        stamps[start] = stamp;
+        cost[start] = 0;
+        open.insert(start, distance(fromRow, fromCol, toRow, toCol));
+
+        int closest = start;
+        int closestDistance = distance(fromRow, fromCol, toRow, toCol);
+
+        while (!open.isEmpty()) {
+            int current = open.removeMin();
+            lastExpanded++;
+            int row = top + current / width;
+            int col = left + current % width;
+
+            int remaining = distance(row, col, toRow, toCol);
+            if (remaining < closestDistance) {
+                closest = current;
+                closestDistance = remaining;
+            }
+            if (remaining == 0) {
+                return current;
+            }
+
+            int mask = board.getNeighborMask(board.indexOf(row, col));
+            int nextCost = cost[current] + 1;
+            for (int bit = 0; bit < DIRECTIONS.length; bit++) {
+                if ((mask & (1 << bit)) == 0) {
+                    continue;
+                }
+                int nextRow = row + DELTA_ROW[bit];
+                int nextCol = col + DELTA_COL[bit];
+                if (nextRow < top || nextRow >= top + height || nextCol < left || nextCol >= left + width) {
+                    continue;
+                }
+
+                int next = local(nextRow, nextCol);
+                if (stamps[next] != stamp) {
+                    stamps[next] = stamp;
+                    cost[next] = nextCost;
+                    arrivedBy[next] = (byte) bit;
+                    open.insert(next, nextCost + distance(nextRow, nextCol, toRow, toCol));
+                } else if (nextCost < cost[next] && open.contains(next)) {
+                    cost[next] = nextCost;
+                    arrivedBy[next] = (byte) bit;
+                    open.decreaseKey(next, nextCost + distance(nextRow, nextCol, toRow, toCol));
+                }
+            }
+        }
+        return closest;
+    }
+
+    private void ensureCapacity(int cells) {
+        if (cells > stamps.length) {
+            cost = new int[cells];
+            stamps = new int[cells];
+            arrivedBy = new byte[cells];
+            open = new IndexedIntHeap(cells);
+        }
+    }
+
+    private void nextStamp() {
+        stamp++;
+        if (stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+    }
+
+    private int local(int row, int col) {
+        return (row - top) * width + (col - left);
+    }
+
+    private static int distance(int row, int col, int toRow, int toCol) {
+        return Math.abs(toRow - row) + Math.abs(toCol - col);
+    }
+}
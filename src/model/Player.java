@@ -18,8 +18,14 @@ public class Player implements Serializable {
     private boolean hasDoublePoints;
     private int animationFrame;
     private long lastMoveTime;
+    private final GameClock clock;
 
     public Player(int startRow, int startCol) {
+        this(startRow, startCol, new WallClock());
+    }
+
+    public Player(int startRow, int startCol, GameClock clock) {
+        this.clock = clock;
         this.row = startRow;
         this.col = startCol;
         this.currentDirection = null;
@@ -37,7 +43,7 @@ public class Player implements Serializable {
     public synchronized void setPosition(int row, int col) {
         this.row = row;
         this.col = col;
-        this.lastMoveTime = System.currentTimeMillis();
+        this.lastMoveTime = clock.currentTimeMillis();
     }
 
     public Direction getCurrentDirection() { return currentDirection; }
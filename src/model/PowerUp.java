@@ -31,14 +31,20 @@ public class PowerUp implements Serializable {
     }
 
     private final PowerUpType type;
+    private final GameClock clock;
     private final long createdTime;
     private long activatedTime;
     private boolean isActive;
     private boolean isCollected;
 
     public PowerUp(PowerUpType type) {
+        this(type, new WallClock());
+    }
+
+    public PowerUp(PowerUpType type, GameClock clock) {
         this.type = type;
-        this.createdTime = System.currentTimeMillis();
+        this.clock = clock;
+        this.createdTime = clock.currentTimeMillis();
         this.activatedTime = 0;
         this.isActive = false;
         this.isCollected = false;
@@ -53,7 +59,7 @@ public class PowerUp implements Serializable {
         if (!isCollected) {
             this.isActive = true;
             this.isCollected = true;
-            this.activatedTime = System.currentTimeMillis();
+            this.activatedTime = clock.currentTimeMillis();
         }
     }
 
@@ -62,7 +68,7 @@ public class PowerUp implements Serializable {
             return false;
         }
 
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.currentTimeMillis();
         return (currentTime - activatedTime) >= type.getDurationMs();
     }
 
@@ -71,7 +77,7 @@ public class PowerUp implements Serializable {
             return 0;
         }
 
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.currentTimeMillis();
         long elapsed = currentTime - activatedTime;
         long remaining = type.getDurationMs() - elapsed;
 
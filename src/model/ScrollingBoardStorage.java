@@ -0,0 +1,104 @@
+package model;
+
+import utils.EllerMazeGenerator;
+
+// Okno rows x cols na nieskończony labirynt: wiersze trzymane w pierścieniu, a nowe
+// wiersze dogenerowuje EllerMazeGenerator. Stroną jest jeden wiersz okna.
+class ScrollingBoardStorage implements BoardStorage {
+    private static final long serialVersionUID = 1L;
+
+    private final int rows;
+    private final int cols;
+    private final byte[] cells;
+    private final EllerMazeGenerator generator;
+    // Fizyczny wiersz, który jest w oknie wierszem 0
+    private int topRow;
+    private long scrolledRows;
+
+    ScrollingBoardStorage(int rows, int cols, EllerMazeGenerator generator) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new byte[rows * cols];
+        this.generator = generator;
+        this.topRow = 0;
+        this.scrolledRows = 0;
+
+        byte[] row = new byte[cols];
+        for (int r = 0; r < rows; r++) {
+            generator.nextRow(row);
+            System.arraycopy(row, 0, cells, r * cols, cols);
+        }
+    }
+
+    private int physicalIndex(int index) {
+        int row = index / cols + topRow;
+        if (row >= rows) {
+            row -= rows;
+        }
+        return row * cols + index % cols;
+    }
+
+    // Wyrzuca górny wiersz okna i wstawia na dół nowy; zwraca fizyczny początek nowego wiersza
+    int scrollRow(byte[] buffer) {
+        generator.nextRow(buffer);
+        int start = topRow * cols;
+        System.arraycopy(buffer, 0, cells, start, cols);
+        topRow = topRow + 1 == rows ? 0 : topRow + 1;
+        scrolledRows++;
+        return start;
+    }
+
+    long getScrolledRows() {
+        return scrolledRows;
+    }
+
+    @Override
+    public byte get(int index) {
+        return cells[physicalIndex(index)];
+    }
+
+    @Override
+    public void set(int index, byte type) {
+        cells[physicalIndex(index)] = type;
+    }
+
+    @Override
+    public boolean isPassable(int index) {
+        return get(index) != GameBoard.WALL;
+    }
+
+    @Override
+    public int getNeighborMask(int index) {
+        int row = index / cols;
+        int col = index % cols;
+        int mask = 0;
+        if (row > 0 && isPassable(index - cols)) mask |= 1 << Player.Direction.UP.ordinal();
+        if (row < rows - 1 && isPassable(index + cols)) mask |= 1 << Player.Direction.DOWN.ordinal();
+        if (col > 0 && isPassable(index - 1)) mask |= 1 << Player.Direction.LEFT.ordinal();
+        if (col < cols - 1 && isPassable(index + 1)) mask |= 1 << Player.Direction.RIGHT.ordinal();
+        return mask;
+    }
+
+    @Override
+    public int getPageRows() {
+        return 1;
+    }
+
+    @Override
+    public int getPageCols() {
+        return cols;
+    }
+
+    @Override
+    public byte[] copyPage(int pageRow, int pageCol) {
+        int start = physicalIndex(pageRow * cols);
+        byte[] page = new byte[cols];
+        System.arraycopy(cells, start, page, 0, cols);
+        return page;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return false;
+    }
+}
@@ -0,0 +1,201 @@
+package model;
+
+import java.util.Arrays;
+
+// Położenia duchów w kubełkach 4x4 pola, rozrzuconych po tablicy mieszającej -
+// pamięć zależy od liczby duchów, nie od rozmiaru planszy. Każdy duch pamięta też pole z początku
+// ticka, więc da się wykryć minięcie się z Pac-Manem (zamianę pól) w jednym ticku.
+public class SpatialHash {
+
+    public static final int NONE = -1;
+
+    private static final int BUCKET_SHIFT = 2;
+
+    private final int[] head;
+    private final int mask;
+    // Dwukierunkowa lista duchów w kubełku - usuwanie w O(1)
+    private final int[] next;
+    private final int[] previous;
+    private final int[] bucket;
+    private final int[] row;
+    private final int[] col;
+    private final int[] startRow;
+    private final int[] startCol;
+    private final long[] movedTick;
+    private long tick;
+    private int[] hits;
+    private int hitCount;
+
+    public SpatialHash(int capacity) {
+        int tableSize = Integer.highestOneBit(Math.max(16, 2 * capacity - 1)) << 1;
+        this.head = new int[tableSize];
+        this.mask = tableSize - 1;
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.bucket = new int[capacity];
+        this.row = new int[capacity];
+        this.col = new int[capacity];
+        this.startRow = new int[capacity];
+        this.startCol = new int[capacity];
+        this.movedTick = new long[capacity];
+        this.hits = new int[16];
+        Arrays.fill(head, NONE);
+        Arrays.fill(bucket, NONE);
+        Arrays.fill(movedTick, -1);
+    }
+
+    // Początek ticka - od tej chwili pierwszy ruch ducha zapamiętuje jego pole startowe
+    public void nextTick() {
+        tick++;
+    }
+
+    // Ruch w ramach ticka - wliczany do testu minięcia się
+    public void move(int id, int newRow, int newCol) {
+        if (movedTick[id] != tick) {
+            movedTick[id] = tick;
+            startRow[id] = row[id];
+            startCol[id] = col[id];
+        }
+        relocate(id, newRow, newCol);
+    }
+
+    // Przeniesienie bez przejścia (start, powrót na pozycję startową, przewinięcie planszy)
+    public void place(int id, int newRow, int newCol) {
+        relocate(id, newRow, newCol);
+        movedTick[id] = tick;
+        startRow[id] = newRow;
+        startCol[id] = newCol;
+    }
+
+    public void remove(int id) {
+        unlink(id);
+        movedTick[id] = -1;
+    }
+
+    private void relocate(int id, int newRow, int newCol) {
+        int newBucket = bucketOf(newRow, newCol);
+        if (newBucket != bucket[id]) {
+            unlink(id);
+            link(id, newBucket);
+        }
+        row[id] = newRow;
+        col[id] = newCol;
+    }
+
+    private void link(int id, int slot) {
+        bucket[id] = slot;
+        previous[id] = NONE;
+        next[id] = head[slot];
+        if (head[slot] != NONE) {
+            previous[head[slot]] = id;
+        }
+        head[slot] = id;
+    }
+
+    private void unlink(int id) {
+        int slot = bucket[id];
+        if (slot == NONE) {
+            return;
+        }
+        if (previous[id] != NONE) {
+            next[previous[id]] = next[id];
+        } else {
+            head[slot] = next[id];
+        }
+        if (next[id] != NONE) {
+            previous[next[id]] = previous[id];
+        }
+        bucket[id] = NONE;
+    }
+
+    private int bucketOf(int cellRow, int cellCol) {
+        int hash = (cellRow >> BUCKET_SHIFT) * 0x9E3779B1 ^ (cellCol >> BUCKET_SHIFT) * 0x85EBCA77;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private int fromRow(int id) {
+        return movedTick[id] == tick ? startRow[id] : row[id];
+    }
+
+    private int fromCol(int id) {
+        return movedTick[id] == tick ? startCol[id] : col[id];
+    }
+
+    // Duchy trafione przez Pac-Mana idącego z (fromRow, fromCol) na (toRow, toCol) w tym ticku:
+    // stojące na jego polu końcowym albo mijające się z nim (zamiana pól). Wynik rosnąco według id
+    // w getHit(0..count-1)
+    public int collectSwept(int fromRow, int fromCol, int toRow, int toCol) {
+        hitCount = 0;
+        collectSwept(bucketOf(toRow, toCol), fromRow, fromCol, toRow, toCol);
+        int fromBucket = bucketOf(fromRow, fromCol);
+        if (fromBucket != bucketOf(toRow, toCol)) {
+            collectSwept(fromBucket, fromRow, fromCol, toRow, toCol);
+        }
+        Arrays.sort(hits, 0, hitCount);
+        return hitCount;
+    }
+
+    private void collectSwept(int slot, int fromRow, int fromCol, int toRow, int toCol) {
+        for (int id = head[slot]; id != NONE; id = next[id]) {
+            boolean sameCell = row[id] == toRow && col[id] == toCol;
+            boolean swapped = row[id] == fromRow && col[id] == fromCol
+                    && fromRow(id) == toRow && fromCol(id) == toCol;
+            if (sameCell || swapped) {
+                addHit(id);
+            }
+        }
+    }
+
+    private void addHit(int id) {
+        if (hitCount == hits.length) {
+            hits = Arrays.copyOf(hits, hitCount * 2);
+        }
+        hits[hitCount++] = id;
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getHit(int index) {
+        return hits[index];
+    }
+
+    // Czy jakiś duch stoi w odległości (Manhattan) mniejszej niż radius od pola
+    public boolean anyWithin(int centerRow, int centerCol, int radius) {
+        int reach = radius - 1;
+        for (int bucketRow = (centerRow - reach) >> BUCKET_SHIFT;
+             bucketRow <= (centerRow + reach) >> BUCKET_SHIFT; bucketRow++) {
+            for (int bucketCol = (centerCol - reach) >> BUCKET_SHIFT;
+                 bucketCol <= (centerCol + reach) >> BUCKET_SHIFT; bucketCol++) {
+                int slot = bucketOf(bucketRow << BUCKET_SHIFT, bucketCol << BUCKET_SHIFT);
+                for (int id = head[slot]; id != NONE; id = next[id]) {
+                    if (Math.abs(row[id] - centerRow) + Math.abs(col[id] - centerCol) <= reach) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Liczba duchów w odległości (Manhattan) mniejszej niż radius - także kolizje duch-duch (radius 1)
+    public int countWithin(int centerRow, int centerCol, int radius) {
+        int reach = radius - 1;
+        int count = 0;
+        for (int bucketRow = (centerRow - reach) >> BUCKET_SHIFT;
+             bucketRow <= (centerRow + reach) >> BUCKET_SHIFT; bucketRow++) {
+            for (int bucketCol = (centerCol - reach) >> BUCKET_SHIFT;
+                 bucketCol <= (centerCol + reach) >> BUCKET_SHIFT; bucketCol++) {
+                int slot = bucketOf(bucketRow << BUCKET_SHIFT, bucketCol << BUCKET_SHIFT);
+                for (int id = head[slot]; id != NONE; id = next[id]) {
+                    if ((row[id] >> BUCKET_SHIFT) == bucketRow && (col[id] >> BUCKET_SHIFT) == bucketCol
+                            && Math.abs(row[id] - centerRow) + Math.abs(col[id] - centerCol) <= reach) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,38 @@
+package model;
+
+// Czas wyznaczony wyłącznie przez liczbę ticków: każdy tick to tickMillis milisekund gry
+public class VirtualClock implements GameClock {
+    private static final long serialVersionUID = 1L;
+
+    private final long startMillis;
+    private final long tickMillis;
+    private volatile long ticks;
+
+    public VirtualClock(long tickMillis) {
+        this(0, tickMillis);
+    }
+
+    public VirtualClock(long startMillis, long tickMillis) {
+        this.startMillis = startMillis;
+        this.tickMillis = tickMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return startMillis + ticks * tickMillis;
+    }
+
+    @Override
+    public void tick() {
+        ticks++;
+    }
+
+    @Override
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+}
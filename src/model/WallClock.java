@@ -0,0 +1,23 @@
+package model;
+
+// Czas rzeczywisty - ticki są tylko liczone
+public class WallClock implements GameClock {
+    private static final long serialVersionUID = 1L;
+
+    private volatile long ticks;
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void tick() {
+        ticks++;
+    }
+
+    @Override
+    public long getTicks() {
+        return ticks;
+    }
+}
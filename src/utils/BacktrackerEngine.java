@@ -0,0 +1,67 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+// Przeszukiwanie w głąb z losowym wyborem sąsiada - długie, kręte korytarze bez pętli
+public class BacktrackerEngine implements MazeEngine {
+
+    private static final int[][] DIRECTIONS = {{-2, 0}, {0, 2}, {2, 0}, {0, -2}};
+
+    @Override
+    public String getName() {
+        return "Backtracker";
+    }
+
+    @Override
+    public long carve(byte[] cells, int rows, int cols, RandomGenerator random) {
+        long[] visited = new long[(rows * cols + 63) >>> 6];
+        int[] stack = new int[64];
+        int[] neighbors = new int[DIRECTIONS.length];
+        int[] offsets = new int[DIRECTIONS.length];
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            offsets[i] = DIRECTIONS[i][0] * cols + DIRECTIONS[i][1];
+        }
+
+        int start = cols + 1;
+        cells[start] = EMPTY;
+        visited[start >>> 6] |= 1L << start;
+
+        int size = 0;
+        stack[size++] = start;
+
+        while (size > 0) {
+            int current = stack[size - 1];
+            int row = current / cols;
+            int col = current % cols;
+
+            int count = 0;
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                int newRow = row + DIRECTIONS[i][0];
+                int newCol = col + DIRECTIONS[i][1];
+                int neighbor = current + offsets[i];
+                if (newRow > 0 && newRow < rows - 1 && newCol > 0 && newCol < cols - 1
+                        && newRow % 2 == 1 && newCol % 2 == 1
+                        && (visited[neighbor >>> 6] & (1L << neighbor)) == 0) {
+                    neighbors[count++] = neighbor;
+                }
+            }
+
+            if (count > 0) {
+                int next = neighbors[random.nextInt(count)];
+                cells[next] = EMPTY;
+                cells[(current + next) >>> 1] = EMPTY;
+                visited[next >>> 6] |= 1L << next;
+
+                if (size == stack.length) {
+                    stack = Arrays.copyOf(stack, size * 2);
+                }
+                stack[size++] = next;
+            } else {
+                size--;
+            }
+        }
+
+        return visited.length * 8L + stack.length * 4L;
+    }
+}
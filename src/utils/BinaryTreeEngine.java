@@ -0,0 +1,36 @@
+package utils;
+
+import java.util.random.RandomGenerator;
+
+// Każdy pokój łączy się z sąsiadem w górę albo w lewo - jedno przejście, bez pamięci roboczej.
+// Najszybszy, ale z wyraźnym skosem: górny wiersz i lewa kolumna to proste korytarze.
+public class BinaryTreeEngine implements MazeEngine {
+
+    @Override
+    public String getName() {
+        return "Binary tree";
+    }
+
+    @Override
+    public long carve(byte[] cells, int rows, int cols, RandomGenerator random) {
+        int roomRows = MazeEngine.roomRows(rows);
+        int roomCols = MazeEngine.roomCols(cols);
+
+        for (int roomRow = 0; roomRow < roomRows; roomRow++) {
+            for (int roomCol = 0; roomCol < roomCols; roomCol++) {
+                int index = MazeEngine.roomIndex(roomRow, roomCol, cols);
+                cells[index] = EMPTY;
+
+                boolean canGoUp = roomRow > 0;
+                boolean canGoLeft = roomCol > 0;
+                if (canGoUp && (!canGoLeft || random.nextBoolean())) {
+                    cells[index - cols] = EMPTY;
+                } else if (canGoLeft) {
+                    cells[index - 1] = EMPTY;
+                }
+            }
+        }
+
+        return 0;
+    }
+}
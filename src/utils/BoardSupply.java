@@ -0,0 +1,184 @@
+package utils;
+
+import model.GameBoard;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+// Zapas gotowych plansz dla ostatnio używanych rozmiarów - "New Game" nie czeka na generator.
+// Zapas uzupełnia wątek o najniższym priorytecie; gdy zapas jest pusty, plansza powstaje
+// asynchronicznie na osobnym wątku, a anulowana generacja trafia do zapasu.
+public class BoardSupply {
+
+    private static final int BOARDS_PER_SIZE = 2;
+    private static final int RECENT_SIZES = 3;
+
+    private static final class BoardSize {
+        private final int rows;
+        private final int cols;
+        private final boolean endless;
+
+        BoardSize(int rows, int cols, boolean endless) {
+            this.rows = rows;
+            this.cols = cols;
+            this.endless = endless;
+        }
+
+        GameBoard generate() {
+            return new GameBoard(rows, cols, endless);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof BoardSize)) {
+                return false;
+            }
+            BoardSize size = (BoardSize) other;
+            return rows == size.rows && cols == size.cols && endless == size.endless;
+        }
+
+        @Override
+        public int hashCode() {
+            return (rows * 31 + cols) * 2 + (endless ? 1 : 0);
+        }
+    }
+
+    // Kolejność dostępu - najdawniej używany rozmiar wypada pierwszy
+    private final LinkedHashMap<BoardSize, ArrayDeque<GameBoard>> ready;
+    private final Set<BoardSize> refilling;
+    private final ExecutorService background;
+    private final ExecutorService onDemand;
+
+    public BoardSupply() {
+        this.ready = new LinkedHashMap<>(RECENT_SIZES * 2, 0.75f, true);
+        this.refilling = new HashSet<>();
+        this.background = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "BoardSupplyThread");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.onDemand = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "BoardGeneratorThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Gotowa plansza z zapasu albo null; zapas jest od razu uzupełniany w tle
+    public GameBoard take(int rows, int cols, boolean endless) {
+        BoardSize size = new BoardSize(rows, cols, endless);
+        GameBoard board = poll(size);
+        scheduleRefill(size);
+        return board;
+    }
+
+    private synchronized GameBoard poll(BoardSize size) {
+        return touch(size).poll();
+    }
+
+    // Plansza z zapasu (future już zakończony) albo generowana asynchronicznie;
+    // cancel() na zwróconym future nie przerywa generatora, wynik trafia wtedy do zapasu
+    public CompletableFuture<GameBoard> obtain(int rows, int cols, boolean endless) {
+        BoardSize size = new BoardSize(rows, cols, endless);
+        GameBoard board = poll(size);
+        if (board != null) {
+            scheduleRefill(size);
+            return CompletableFuture.completedFuture(board);
+        }
+
+        // Uzupełnianie zapasu rusza dopiero po tej generacji, żeby nie odbierało jej procesora
+        CompletableFuture<GameBoard> result = new CompletableFuture<>();
+        onDemand.execute(() -> {
+            try {
+                if (!result.isDone()) {
+                    GameBoard generated = size.generate();
+                    if (!result.complete(generated)) {
+                        offer(size, generated);
+                    }
+                }
+            } catch (RuntimeException | OutOfMemoryError e) {
+                result.completeExceptionally(e);
+            } finally {
+                scheduleRefill(size);
+            }
+        });
+        return result;
+    }
+
+    public void prefetch(int rows, int cols, boolean endless) {
+        BoardSize size = new BoardSize(rows, cols, endless);
+        synchronized (this) {
+            touch(size);
+        }
+        scheduleRefill(size);
+    }
+
+    private ArrayDeque<GameBoard> touch(BoardSize size) {
+        ArrayDeque<GameBoard> boards = ready.computeIfAbsent(size, key -> new ArrayDeque<>());
+        Iterator<BoardSize> eldest = ready.keySet().iterator();
+        while (ready.size() > RECENT_SIZES) {
+            eldest.next();
+            eldest.remove();
+        }
+        return boards;
+    }
+
+    private synchronized boolean offer(BoardSize size, GameBoard board) {
+        ArrayDeque<GameBoard> boards = ready.get(size);
+        if (boards == null || boards.size() >= BOARDS_PER_SIZE) {
+            return false;
+        }
+        boards.add(board);
+        return true;
+    }
+
+    private synchronized boolean needsBoard(BoardSize size) {
+        ArrayDeque<GameBoard> boards = ready.get(size);
+        return boards != null && boards.size() < BOARDS_PER_SIZE;
+    }
+
+    private void scheduleRefill(BoardSize size) {
+        synchronized (this) {
+            if (!refilling.add(size)) {
+                return;
+            }
+        }
+
+        try {
+            background.execute(() -> {
+                try {
+                    while (needsBoard(size) && !Thread.currentThread().isInterrupted()) {
+                        offer(size, size.generate());
+                    }
+                } catch (RuntimeException | OutOfMemoryError e) {
+                    System.err.println("Error pre-generating board: " + e.getMessage());
+                } finally {
+                    synchronized (this) {
+                        refilling.remove(size);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                refilling.remove(size);
+            }
+        }
+    }
+
+    public synchronized int getReadyCount(int rows, int cols, boolean endless) {
+        ArrayDeque<GameBoard> boards = ready.get(new BoardSize(rows, cols, endless));
+        return boards != null ? boards.size() : 0;
+    }
+
+    public void shutdown() {
+        background.shutdownNow();
+        onDemand.shutdownNow();
+    }
+}
@@ -0,0 +1,138 @@
+package utils;
+
+import model.Cell;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Generuje labirynt kawałkami (chunkSize x chunkSize) na żądanie, deterministycznie z ziarna.
+// Każdy kawałek jest idealnym labiryntem i ma jedno przejście do kawałka po lewej albo nad nim,
+// więc kawałki tworzą drzewo i cała plansza pozostaje spójna.
+public class ChunkMazeGenerator implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final byte WALL = (byte) Cell.CellType.WALL.ordinal();
+    private static final byte EMPTY = (byte) Cell.CellType.EMPTY.ordinal();
+    private static final byte DOT = (byte) Cell.CellType.DOT.ordinal();
+    private static final byte POWER_PELLET = (byte) Cell.CellType.POWER_PELLET.ordinal();
+
+    private final int rows;
+    private final int cols;
+    private final int chunkSize;
+    private final long seed;
+
+    public ChunkMazeGenerator(int rows, int cols, int chunkSize, long seed) {
+        if (chunkSize < 2 || chunkSize % 2 != 0) {
+            throw new IllegalArgumentException("Chunk size must be even: " + chunkSize);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.chunkSize = chunkSize;
+        this.seed = seed;
+    }
+
+    public byte[] generateChunk(int chunkRow, int chunkCol) {
+        byte[] cells = new byte[chunkSize * chunkSize];
+        Arrays.fill(cells, WALL);
+
+        int roomRows = countRooms(chunkRow * chunkSize, rows);
+        int roomCols = countRooms(chunkCol * chunkSize, cols);
+        if (roomRows == 0 || roomCols == 0) {
+            return cells;
+        }
+
+        SplittableRandom random = new SplittableRandom(chunkSeed(chunkRow, chunkCol));
+        carveRooms(cells, roomRows, roomCols, random);
+        openDoor(cells, chunkRow, chunkCol, roomRows, roomCols, random);
+        addDots(cells, random);
+        return cells;
+    }
+
+    // Pokoje leżą na nieparzystych współrzędnych globalnych, wewnątrz ramki planszy
+    private int countRooms(int base, int limit) {
+        int count = 0;
+        for (int local = 1; local < chunkSize && base + local < limit - 1; local += 2) {
+            count++;
+        }
+        return count;
+    }
+
+    private void carveRooms(byte[] cells, int roomRows, int roomCols, SplittableRandom random) {
+        boolean[] visited = new boolean[roomRows * roomCols];
+        int[] stack = new int[roomRows * roomCols];
+        int[] neighbors = new int[4];
+        int top = 0;
+
+        stack[top++] = 0;
+        visited[0] = true;
+        openRoom(cells, 0, 0);
+
+        while (top > 0) {
+            int current = stack[top - 1];
+            int roomRow = current / roomCols;
+            int roomCol = current % roomCols;
+
+            int count = 0;
+            if (roomRow > 0 && !visited[current - roomCols]) neighbors[count++] = current - roomCols;
+            if (roomCol < roomCols - 1 && !visited[current + 1]) neighbors[count++] = current + 1;
+            if (roomRow < roomRows - 1 && !visited[current + roomCols]) neighbors[count++] = current + roomCols;
+            if (roomCol > 0 && !visited[current - 1]) neighbors[count++] = current - 1;
+
+            if (count == 0) {
+                top--;
+                continue;
+            }
+
+            int next = neighbors[random.nextInt(count)];
+            int nextRow = next / roomCols;
+            int nextCol = next % roomCols;
+
+            visited[next] = true;
+            openRoom(cells, nextRow, nextCol);
+            cells[(roomRow + nextRow + 1) * chunkSize + (roomCol + nextCol + 1)] = EMPTY;
+            stack[top++] = next;
+        }
+    }
+
+    private void openRoom(byte[] cells, int roomRow, int roomCol) {
+        cells[(2 * roomRow + 1) * chunkSize + (2 * roomCol + 1)] = EMPTY;
+    }
+
+    // Przejście leży w zerowej kolumnie/wierszu tego kawałka - sąsiad nie musi być wygenerowany
+    private void openDoor(byte[] cells, int chunkRow, int chunkCol, int roomRows, int roomCols,
+                          SplittableRandom random) {
+        boolean canGoLeft = chunkCol > 0;
+        boolean canGoUp = chunkRow > 0;
+        if (!canGoLeft && !canGoUp) {
+            return;
+        }
+
+        boolean goLeft = canGoLeft && (!canGoUp || random.nextBoolean());
+        if (goLeft) {
+            int roomRow = random.nextInt(roomRows);
+            cells[(2 * roomRow + 1) * chunkSize] = EMPTY;
+        } else {
+            int roomCol = random.nextInt(roomCols);
+            cells[2 * roomCol + 1] = EMPTY;
+        }
+    }
+
+    private void addDots(byte[] cells, SplittableRandom random) {
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == EMPTY) {
+                cells[i] = random.nextDouble() < 0.9 ? DOT : POWER_PELLET;
+            }
+        }
+    }
+
+    private long chunkSeed(int chunkRow, int chunkCol) {
+        long z = seed ^ (chunkRow * 0x9E3779B97F4A7C15L) ^ (chunkCol * 0xC2B2AE3D27D4EB4FL);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
@@ -0,0 +1,174 @@
+package utils;
+
+import model.Cell;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Random;
+
+// Labirynt strumieniowo, wiersz po wierszu (algorytm Ellera) - stan ma rozmiar O(cols),
+// więc labirynt może rosnąć w dół bez końca. Pokoje leżą na nieparzystych wierszach i kolumnach,
+// tak jak w MazeGenerator; pierwszy wiersz to górna ściana.
+public class EllerMazeGenerator implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final byte WALL = (byte) Cell.CellType.WALL.ordinal();
+    private static final byte EMPTY = (byte) Cell.CellType.EMPTY.ordinal();
+    private static final byte DOT = (byte) Cell.CellType.DOT.ordinal();
+    private static final byte POWER_PELLET = (byte) Cell.CellType.POWER_PELLET.ordinal();
+
+    private static final int NO_SET = -1;
+
+    private final int cols;
+    private final int roomCount;
+    private final Random random;
+    // Zbiór (etykieta 0..roomCount-1) każdego pokoju w bieżącym wierszu pokoi
+    private final int[] sets;
+    private final int[] parent;
+    private final int[] labelUsage;
+    private final boolean[] joinedLeft;
+    private final boolean[] goesDown;
+    private long emittedRows;
+
+    public EllerMazeGenerator(int cols, long seed) {
+        this(cols, new Random(seed));
+    }
+
+    private EllerMazeGenerator(int cols, Random random) {
+        this.cols = cols;
+        this.roomCount = Math.max(0, (cols - 1) / 2);
+        this.random = random;
+        this.sets = new int[roomCount];
+        this.parent = new int[roomCount];
+        this.labelUsage = new int[roomCount];
+        this.joinedLeft = new boolean[roomCount];
+        this.goesDown = new boolean[roomCount];
+        this.emittedRows = 0;
+        Arrays.fill(sets, NO_SET);
+    }
+
+    // Wypełnia row (długość cols) następnym wierszem labiryntu; nic nie alokuje
+    public void nextRow(byte[] row) {
+        Arrays.fill(row, 0, cols, WALL);
+
+        if (emittedRows > 0) {
+            if (emittedRows % 2 == 1) {
+                carveRoomRow(row);
+            } else {
+                carvePassageRow(row);
+            }
+            addDots(row);
+        }
+        emittedRows++;
+    }
+
+    public byte[] nextRow() {
+        byte[] row = new byte[cols];
+        nextRow(row);
+        return row;
+    }
+
+    public long getEmittedRows() {
+        return emittedRows;
+    }
+
+    private void carveRoomRow(byte[] row) {
+        if (roomCount == 0) {
+            return;
+        }
+        assignNewSets();
+
+        for (int label = 0; label < roomCount; label++) {
+            parent[label] = label;
+        }
+
+        row[roomColumn(0)] = EMPTY;
+        joinedLeft[0] = false;
+        for (int room = 1; room < roomCount; room++) {
+            row[roomColumn(room)] = EMPTY;
+            int left = find(sets[room - 1]);
+            int right = find(sets[room]);
+            joinedLeft[room] = left != right && random.nextBoolean();
+            if (joinedLeft[room]) {
+                parent[right] = left;
+                row[roomColumn(room) - 1] = EMPTY;
+            }
+        }
+
+        for (int room = 0; room < roomCount; room++) {
+            sets[room] = find(sets[room]);
+        }
+
+        chooseDownPassages();
+    }
+
+    // Każdy poziomy odcinek schodzi w dół co najmniej raz (mocniej niż wymaga Eller - jeden raz
+    // na zbiór), więc z każdego pola da się zejść w dół bez cofania się do porzuconych wierszy
+    private void chooseDownPassages() {
+        int runStart = 0;
+        boolean runGoesDown = false;
+        for (int room = 0; room < roomCount; room++) {
+            if (room > 0 && !joinedLeft[room]) {
+                runStart = room;
+                runGoesDown = false;
+            }
+            goesDown[room] = random.nextBoolean();
+            runGoesDown |= goesDown[room];
+
+            boolean runEnds = room == roomCount - 1 || !joinedLeft[room + 1];
+            if (runEnds && !runGoesDown) {
+                goesDown[runStart + random.nextInt(room - runStart + 1)] = true;
+            }
+        }
+    }
+
+    private void carvePassageRow(byte[] row) {
+        for (int room = 0; room < roomCount; room++) {
+            if (goesDown[room]) {
+                row[roomColumn(room)] = EMPTY;
+            } else {
+                sets[room] = NO_SET;
+            }
+        }
+    }
+
+    // Pokoje bez zbioru dostają wolne etykiety - etykiet nigdy nie jest więcej niż pokoi
+    private void assignNewSets() {
+        Arrays.fill(labelUsage, 0);
+        for (int room = 0; room < roomCount; room++) {
+            if (sets[room] != NO_SET) {
+                labelUsage[sets[room]]++;
+            }
+        }
+
+        int freeLabel = 0;
+        for (int room = 0; room < roomCount; room++) {
+            if (sets[room] == NO_SET) {
+                while (labelUsage[freeLabel] > 0) {
+                    freeLabel++;
+                }
+                sets[room] = freeLabel;
+                labelUsage[freeLabel]++;
+            }
+        }
+    }
+
+    private int find(int label) {
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+
+    private static int roomColumn(int room) {
+        return 2 * room + 1;
+    }
+
+    private void addDots(byte[] row) {
+        for (int col = 1; col < cols - 1; col++) {
+            if (row[col] == EMPTY) {
+                row[col] = random.nextDouble() < 0.9 ? DOT : POWER_PELLET;
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package utils;
+
+import model.GameBoard;
+import model.GameModel;
+import model.GameSnapshot;
+import model.Player;
+import model.VirtualClock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Jedna gra bez interfejsu na własnym wątku wirtualnym. Czas gry liczy zegar wirtualny
+// (tick = tickMillis), więc sesja z tym samym ziarnem i tym samym botem przebiega tak samo
+// niezależnie od tempa. Po zakończeniu model jest zwalniany - zostają tylko metryki.
+public class GameSession implements Runnable {
+
+    public enum State {
+        STARTING, RUNNING, FINISHED, STOPPED, FAILED
+    }
+
+    // Ruch Pac-Mana na podstawie stanu po poprzednim ticku; null - bez zmiany kierunku
+    public interface Bot {
+        Player.Direction nextMove(GameSnapshot snapshot);
+    }
+
+    private final long id;
+    private final SessionConfig config;
+    private final Bot bot;
+    private final long createdNanos;
+
+    private volatile GameModel model;
+    private volatile State state;
+    private volatile boolean stopRequested;
+    private volatile Thread thread;
+    private volatile String failure;
+
+    private volatile long ticks;
+    private volatile long totalTickNanos;
+    private volatile long maxTickNanos;
+    private volatile long overrunTicks;
+    private volatile long droppedTicks;
+    private volatile int score;
+    private volatile int lives;
+    private volatile long gameTime;
+    private volatile GameModel.GameState gameState;
+
+    GameSession(long id, SessionConfig config, Bot bot) {
+        this.id = id;
+        this.config = config;
+        this.bot = bot;
+        this.createdNanos = System.nanoTime();
+        this.state = State.STARTING;
+    }
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        try {
+            GameModel game = new GameModel();
+            game.setClock(new VirtualClock(config.getTickMillis()));
+            game.initializeGame(createBoard(), config.getGhosts());
+            model = game;
+            if (stopRequested) {
+                state = State.STOPPED;
+                return;
+            }
+            state = State.RUNNING;
+            runTicks(game);
+            state = stopRequested ? State.STOPPED : State.FINISHED;
+        } catch (RuntimeException e) {
+            failure = e.toString();
+            state = State.FAILED;
+        } catch (Error e) {
+            // Stan końcowy przed rzuceniem dalej - inaczej sesja wisi jako RUNNING i zajmuje slot
+            failure = e.toString();
+            state = State.FAILED;
+            throw e;
+        } finally {
+            model = null;
+            thread = null;
+        }
+    }
+
+    private GameBoard createBoard() {
+        if (config.isEndless() || (config.getMazeAlgorithm() == null && config.getBraidRatio() == 0)) {
+            return new GameBoard(config.getRows(), config.getCols(), config.isEndless(), config.getSeed());
+        }
+        return new GameBoard(config.getRows(), config.getCols(), config.getMazeAlgorithm(),
+                config.getBraidRatio(), config.getSeed());
+    }
+
+    // Stały krok jak w ThreadManager: terminy liczone od startu, nadrabianie ograniczone
+    private void runTicks(GameModel game) {
+        long step = TimeUnit.MILLISECONDS.toNanos(config.getTickMillis());
+        long deadline = System.nanoTime();
+
+        while (!stopRequested && ticks < config.getMaxTicks()
+                && game.getGameState() == GameModel.GameState.PLAYING) {
+            if (config.isRealTime()) {
+                long wait = deadline - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    continue;
+                }
+                long behind = -wait / step;
+                if (behind >= ThreadManager.DEFAULT_MAX_CATCH_UP_TICKS) {
+                    droppedTicks += behind;
+                    deadline += behind * step;
+                }
+                deadline += step;
+            }
+            tick(game, step);
+        }
+        recordResult(game.getSnapshot());
+    }
+
+    private void tick(GameModel game, long step) {
+        if (bot != null) {
+            Player.Direction move = bot.nextMove(game.getSnapshot());
+            if (move != null) {
+                game.movePacman(move);
+            }
+        }
+
+        long start = System.nanoTime();
+        game.updateGame();
+        long elapsed = System.nanoTime() - start;
+
+        ticks++;
+        totalTickNanos += elapsed;
+        maxTickNanos = Math.max(maxTickNanos, elapsed);
+        if (elapsed > step) {
+            overrunTicks++;
+        }
+        recordResult(game.getSnapshot());
+    }
+
+    private void recordResult(GameSnapshot snapshot) {
+        score = snapshot.getScore();
+        lives = snapshot.getLives();
+        gameTime = snapshot.getGameTime();
+        gameState = snapshot.getGameState();
+    }
+
+    // Sesja kończy się po bieżącym ticku; budzi też wątek czekający na następny termin
+    void stop() {
+        stopRequested = true;
+        Thread current = thread;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public SessionConfig getConfig() {
+        return config;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isDone() {
+        return state == State.FINISHED || state == State.STOPPED || state == State.FAILED;
+    }
+
+    // Stan gry na żywo albo null, gdy sesja jeszcze nie wystartowała lub już się skończyła
+    public GameSnapshot getSnapshot() {
+        GameModel current = model;
+        return current != null ? current.getSnapshot() : null;
+    }
+
+    public SessionMetrics getMetrics() {
+        return new SessionMetrics(id, state, gameState, ticks, totalTickNanos, maxTickNanos,
+                overrunTicks, droppedTicks, score, lives, gameTime,
+                System.nanoTime() - createdNanos, failure);
+    }
+}
@@ -0,0 +1,137 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Wiele niezależnych gier bez interfejsu w jednej JVM (ligi botów, testy obciążeniowe).
+// Każda sesja ma własny wątek wirtualny; pamięć jest ograniczona liczbą sesji i rozmiarem
+// planszy jednej sesji, a zakończona sesja trzyma już tylko metryki.
+public class GameSessionHost {
+
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+    public static final int DEFAULT_MAX_CELLS_PER_SESSION = 10_000;
+    public static final int DEFAULT_MAX_GHOSTS_PER_SESSION = 64;
+
+    private final int maxSessions;
+    private final int maxCellsPerSession;
+    private final int maxGhostsPerSession;
+    private final ExecutorService threads;
+    private final ConcurrentHashMap<Long, GameSession> sessions;
+    private final AtomicLong nextId;
+    private volatile boolean shutdown;
+
+    public GameSessionHost() {
+        this(DEFAULT_MAX_SESSIONS, DEFAULT_MAX_CELLS_PER_SESSION, DEFAULT_MAX_GHOSTS_PER_SESSION);
+    }
+
+    public GameSessionHost(int maxSessions, int maxCellsPerSession, int maxGhostsPerSession) {
+        this.maxSessions = maxSessions;
+        this.maxCellsPerSession = maxCellsPerSession;
+        this.maxGhostsPerSession = maxGhostsPerSession;
+        this.threads = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("GameSession-", 0).factory());
+        this.sessions = new ConcurrentHashMap<>();
+        this.nextId = new AtomicLong(1);
+    }
+
+    public GameSession create(SessionConfig config) {
+        return create(config, null);
+    }
+
+    // Sesja startuje od razu; plansza jest generowana już na wątku sesji
+    public synchronized GameSession create(SessionConfig config, GameSession.Bot bot) {
+        if (shutdown) {
+            throw new IllegalStateException("Session host is shut down");
+        }
+        if ((long) config.getRows() * config.getCols() > maxCellsPerSession) {
+            throw new IllegalArgumentException("Board " + config.getRows() + "x" + config.getCols()
+                    + " exceeds " + maxCellsPerSession + " cells per session");
+        }
+        if (config.getGhosts() > maxGhostsPerSession) {
+            throw new IllegalArgumentException("At most " + maxGhostsPerSession + " ghosts per session");
+        }
+        if (sessions.size() >= maxSessions) {
+            throw new IllegalStateException("Session limit reached: " + maxSessions);
+        }
+
+        GameSession session = new GameSession(nextId.getAndIncrement(), config, bot);
+        sessions.put(session.getId(), session);
+        threads.execute(session);
+        return session;
+    }
+
+    // Zatrzymuje sesję (po bieżącym ticku) i zapomina ją; zwraca ostatnie metryki albo null
+    public SessionMetrics destroy(long sessionId) {
+        GameSession session = sessions.remove(sessionId);
+        if (session == null) {
+            return null;
+        }
+        session.stop();
+        return session.getMetrics();
+    }
+
+    public GameSession get(long sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    public SessionMetrics getMetrics(long sessionId) {
+        GameSession session = sessions.get(sessionId);
+        return session != null ? session.getMetrics() : null;
+    }
+
+    public List<SessionMetrics> getAllMetrics() {
+        Collection<GameSession> current = sessions.values();
+        List<SessionMetrics> metrics = new ArrayList<>(current.size());
+        for (GameSession session : current) {
+            metrics.add(session.getMetrics());
+        }
+        return metrics;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public int getRunningCount() {
+        int running = 0;
+        for (GameSession session : sessions.values()) {
+            if (!session.isDone()) {
+                running++;
+            }
+        }
+        return running;
+    }
+
+    // Czeka, aż wszystkie sesje się skończą; false po upływie limitu czasu
+    public boolean awaitAll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (getRunningCount() > 0) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    public void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+        }
+        for (GameSession session : sessions.values()) {
+            session.stop();
+        }
+        threads.shutdown();
+        try {
+            threads.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package utils;
+
+import java.util.random.RandomGenerator;
+
+// Losowa kolejność wszystkich ścian między pokojami; ściana znika, jeśli łączy dwa różne
+// zbiory (union-find). Krótkie korytarze, dużo rozgałęzień.
+public class KruskalEngine implements MazeEngine {
+
+    @Override
+    public String getName() {
+        return "Kruskal";
+    }
+
+    @Override
+    public long carve(byte[] cells, int rows, int cols, RandomGenerator random) {
+        int roomRows = MazeEngine.roomRows(rows);
+        int roomCols = MazeEngine.roomCols(cols);
+        int roomCount = roomRows * roomCols;
+        if (roomCount == 0) {
+            return 0;
+        }
+
+        // Krawędź = 2 * pokój + (0: w prawo, 1: w dół)
+        int[] edges = new int[2 * roomCount];
+        int edgeCount = 0;
+        for (int room = 0; room < roomCount; room++) {
+            cells[MazeEngine.roomIndex(room / roomCols, room % roomCols, cols)] = EMPTY;
+            if (room % roomCols < roomCols - 1) edges[edgeCount++] = 2 * room;
+            if (room / roomCols < roomRows - 1) edges[edgeCount++] = 2 * room + 1;
+        }
+
+        for (int i = edgeCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = edges[i];
+            edges[i] = edges[j];
+            edges[j] = swap;
+        }
+
+        int[] parent = new int[roomCount];
+        for (int room = 0; room < roomCount; room++) {
+            parent[room] = room;
+        }
+
+        for (int i = 0; i < edgeCount; i++) {
+            int room = edges[i] >>> 1;
+            int other = (edges[i] & 1) == 0 ? room + 1 : room + roomCols;
+            int a = find(parent, room);
+            int b = find(parent, other);
+            if (a != b) {
+                parent[b] = a;
+                int from = MazeEngine.roomIndex(room / roomCols, room % roomCols, cols);
+                int to = MazeEngine.roomIndex(other / roomCols, other % roomCols, cols);
+                cells[(from + to) >>> 1] = EMPTY;
+            }
+        }
+
+        return edges.length * 4L + parent.length * 4L;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+}
@@ -0,0 +1,15 @@
+package utils;
+
+// Dostępne silniki generatora labiryntu
+public enum MazeAlgorithm {
+    BACKTRACKER, KRUSKAL, WILSON, BINARY_TREE;
+
+    public MazeEngine createEngine() {
+        switch (this) {
+            case KRUSKAL: return new KruskalEngine();
+            case WILSON: return new WilsonEngine();
+            case BINARY_TREE: return new BinaryTreeEngine();
+            default: return new BacktrackerEngine();
+        }
+    }
+}
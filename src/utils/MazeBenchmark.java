@@ -0,0 +1,47 @@
+package utils;
+
+import model.GameBoard;
+
+// Porównanie algorytmów labiryntu: najlepszy czas z kilku przebiegów i pamięć robocza silnika.
+// Uruchomienie: java -cp <klasy> utils.MazeBenchmark [rozmiar...] (domyślnie 41 1001 3001).
+// Duże rozmiary idą przez MazeGenerator, bo GameBoard powyżej CHUNKED_BOARD_CELLS generuje kawałkami.
+public class MazeBenchmark {
+
+    private static final int[] DEFAULT_SIZES = {41, 1001, 3001};
+    private static final int WARMUP_RUNS = 2;
+
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        for (int size : sizes) {
+            for (MazeAlgorithm algorithm : MazeAlgorithm.values()) {
+                System.out.println(bestOf(size, algorithm, size > 2000 ? 2 : 5));
+            }
+        }
+
+        // Ta sama ścieżka, którą przechodzi gra: plansza z algorytmem i przeplotem
+        for (MazeAlgorithm algorithm : MazeAlgorithm.values()) {
+            GameBoard board = new GameBoard(41, 41, algorithm, 0.5, 1L);
+            System.out.println("GameBoard braid 0.5: " + board.getMazeStats());
+        }
+    }
+
+    private static MazeStats bestOf(int size, MazeAlgorithm algorithm, int runs) {
+        MazeStats best = null;
+        for (int run = 0; run < WARMUP_RUNS + runs; run++) {
+            MazeGenerator generator = new MazeGenerator(size, size, run, algorithm.createEngine());
+            generator.generateTypes();
+            MazeStats stats = generator.getLastStats();
+            if (run >= WARMUP_RUNS && (best == null || stats.getGenerationNanos() < best.getGenerationNanos())) {
+                best = stats;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,29 @@
+package utils;
+
+import model.Cell;
+import java.util.random.RandomGenerator;
+
+// Algorytm wykuwający korytarze labiryntu. Pokoje leżą na nieparzystych wierszach i kolumnach
+// wewnątrz ramki planszy, ściany między nimi na polach o jednej parzystej współrzędnej.
+public interface MazeEngine {
+
+    byte WALL = (byte) Cell.CellType.WALL.ordinal();
+    byte EMPTY = (byte) Cell.CellType.EMPTY.ordinal();
+
+    String getName();
+
+    // cells na wejściu to same ściany; zwraca szczytowy rozmiar struktur roboczych w bajtach
+    long carve(byte[] cells, int rows, int cols, RandomGenerator random);
+
+    static int roomRows(int rows) {
+        return Math.max(0, (rows - 1) / 2);
+    }
+
+    static int roomCols(int cols) {
+        return Math.max(0, (cols - 1) / 2);
+    }
+
+    static int roomIndex(int roomRow, int roomCol, int cols) {
+        return (2 * roomRow + 1) * cols + 2 * roomCol + 1;
+    }
+}
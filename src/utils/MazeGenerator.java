@@ -1,121 +1,210 @@
 package utils;
 
 import model.Cell;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 public class MazeGenerator {
 
+    private static final Cell.CellType[] CELL_TYPES = Cell.CellType.values();
+    private static final byte EMPTY = (byte) Cell.CellType.EMPTY.ordinal();
+    private static final byte WALL = (byte) Cell.CellType.WALL.ordinal();
+    private static final byte DOT = (byte) Cell.CellType.DOT.ordinal();
+    private static final byte POWER_PELLET = (byte) Cell.CellType.POWER_PELLET.ordinal();
+    private static final byte PACMAN = (byte) Cell.CellType.PACMAN.ordinal();
+
+    private static final int[][] ROOM_DIRECTIONS = {{-1, 0}, {0, 1}, {1, 0}, {0, -1}};
+
     private final int rows;
     private final int cols;
-    private Cell[][] maze;
-    private Random random;
-
-    private static final int[][] DIRECTIONS = {{-2, 0}, {0, 2}, {2, 0}, {0, -2}};
+    // Typy pól w jednym byte[] (indeks = row * cols + col); Cell[][] powstaje dopiero na wyjściu
+    private final byte[] cells;
+    private final long[] visited;
+    // Kolejka BFS na spakowanych indeksach pól - bez obiektów w pętli
+    private int[] stack;
+    private final RandomGenerator random;
+    private final MazeEngine engine;
+    // Jaka część ślepych zaułków dostaje dodatkowe przejście (0 = labirynt idealny)
+    private double braidRatio;
+    private MazeStats lastStats;
 
     public MazeGenerator(int rows, int cols) {
+        this(rows, cols, new SplittableRandom(), new BacktrackerEngine());
+    }
+
+    // Ten sam seed daje ten sam labirynt
+    public MazeGenerator(int rows, int cols, long seed) {
+        this(rows, cols, new SplittableRandom(seed), new BacktrackerEngine());
+    }
+
+    public MazeGenerator(int rows, int cols, MazeEngine engine) {
+        this(rows, cols, new SplittableRandom(), engine);
+    }
+
+    public MazeGenerator(int rows, int cols, long seed, MazeEngine engine) {
+        this(rows, cols, new SplittableRandom(seed), engine);
+    }
+
+    private MazeGenerator(int rows, int cols, RandomGenerator random, MazeEngine engine) {
         this.rows = rows;
         this.cols = cols;
-        this.maze = new Cell[rows][cols];
-        this.random = new Random();
+        this.cells = new byte[rows * cols];
+        this.visited = new long[(rows * cols + 63) >>> 6];
+        this.stack = new int[64];
+        this.random = random;
+        this.engine = engine;
+        this.braidRatio = 0;
     }
 
-    public Cell[][] generateMaze() {
-        initializeWithWalls();
-        createMazeStructure();
-        addBorders();
-        addDots();
-        addStartingPositions();
-        return maze;
+    public MazeGenerator setBraidRatio(double braidRatio) {
+        this.braidRatio = braidRatio;
+        return this;
     }
 
-    private void initializeWithWalls() {
+    public MazeStats getLastStats() {
+        return lastStats;
+    }
+
+    public Cell[][] generateMaze() {
+        generateTypes();
+
+        Cell[][] maze = new Cell[rows][cols];
         for (int row = 0; row < rows; row++) {
             for (int col = 0; col < cols; col++) {
-                maze[row][col] = new Cell(Cell.CellType.WALL);
+                maze[row][col] = Cell.of(CELL_TYPES[cells[row * cols + col]]);
             }
         }
+        return maze;
     }
 
-    private void createMazeStructure() {
-        Stack<int[]> stack = new Stack<>();
-
-        int startRow = 1;
-        int startCol = 1;
+    // Labirynt jako kody typów (Cell.CellType.ordinal()); zwracana tablica należy do generatora
+    public byte[] generateTypes() {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
 
-        maze[startRow][startCol] = new Cell(Cell.CellType.EMPTY);
-        maze[startRow][startCol].setVisited(true);
+        initializeWithWalls();
+        long workingBytes = engine.carve(cells, rows, cols, random);
+        braid();
+        addBorders();
+        addDots();
+        addStartingPositions();
 
-        stack.push(new int[]{startRow, startCol});
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+        lastStats = new MazeStats(engine.getName(), rows, cols, elapsed, workingBytes,
+                allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore);
+        return cells;
+    }
 
-        while (!stack.isEmpty()) {
-            int[] current = stack.peek();
-            int currentRow = current[0];
-            int currentCol = current[1];
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
 
-            List<int[]> neighbors = getUnvisitedNeighbors(currentRow, currentCol);
+    private void initializeWithWalls() {
+        Arrays.fill(cells, WALL);
+    }
 
-            if (!neighbors.isEmpty()) {
-                int[] neighbor = neighbors.get(random.nextInt(neighbors.size()));
-                int newRow = neighbor[0];
-                int newCol = neighbor[1];
+    private boolean isVisited(int index) {
+        return (visited[index >>> 6] & (1L << index)) != 0;
+    }
 
-                int wallRow = currentRow + (newRow - currentRow) / 2;
-                int wallCol = currentCol + (newCol - currentCol) / 2;
+    private void markVisited(int index) {
+        visited[index >>> 6] |= 1L << index;
+    }
 
-                maze[newRow][newCol] = new Cell(Cell.CellType.EMPTY);
-                maze[newRow][newCol].setVisited(true);
-                maze[wallRow][wallCol] = new Cell(Cell.CellType.EMPTY);
-                maze[wallRow][wallCol].setVisited(true);
+    private void clearVisited(int index) {
+        visited[index >>> 6] &= ~(1L << index);
+    }
 
-                stack.push(new int[]{newRow, newCol});
-            } else {
-                stack.pop();
-            }
+    private void push(int size, int index) {
+        if (size == stack.length) {
+            stack = Arrays.copyOf(stack, size * 2);
         }
+        stack[size] = index;
+    }
+
+    private boolean isRoom(int roomRow, int roomCol) {
+        return roomRow >= 0 && roomRow < MazeEngine.roomRows(rows)
+                && roomCol >= 0 && roomCol < MazeEngine.roomCols(cols);
     }
 
-    private List<int[]> getUnvisitedNeighbors(int row, int col) {
-        List<int[]> neighbors = new ArrayList<>();
+    // Ślepy zaułek (pokój z jednym wyjściem) z szansą braidRatio dostaje przejście do sąsiada;
+    // pierwszeństwo mają sąsiedzi, którzy też są ślepymi zaułkami
+    private void braid() {
+        if (braidRatio <= 0) {
+            return;
+        }
+
+        int[] candidates = new int[4];
+        for (int roomRow = 0; roomRow < MazeEngine.roomRows(rows); roomRow++) {
+            for (int roomCol = 0; roomCol < MazeEngine.roomCols(cols); roomCol++) {
+                int index = MazeEngine.roomIndex(roomRow, roomCol, cols);
+                if (countExits(index) != 1 || random.nextDouble() >= braidRatio) {
+                    continue;
+                }
 
-        for (int[] direction : DIRECTIONS) {
-            int newRow = row + direction[0];
-            int newCol = col + direction[1];
+                int count = 0;
+                boolean deadEndsOnly = false;
+                for (int[] direction : ROOM_DIRECTIONS) {
+                    int nextRow = roomRow + direction[0];
+                    int nextCol = roomCol + direction[1];
+                    if (!isRoom(nextRow, nextCol)) {
+                        continue;
+                    }
+                    int next = MazeEngine.roomIndex(nextRow, nextCol, cols);
+                    if (cells[(index + next) >>> 1] != WALL) {
+                        continue;
+                    }
+                    boolean deadEnd = countExits(next) == 1;
+                    if (deadEnd && !deadEndsOnly) {
+                        count = 0;
+                        deadEndsOnly = true;
+                    }
+                    if (deadEnd || !deadEndsOnly) {
+                        candidates[count++] = next;
+                    }
+                }
 
-            if (isValidCell(newRow, newCol) && !maze[newRow][newCol].hasBeenVisited()) {
-                neighbors.add(new int[]{newRow, newCol});
+                if (count > 0) {
+                    int next = candidates[random.nextInt(count)];
+                    cells[(index + next) >>> 1] = EMPTY;
+                }
             }
         }
-
-        return neighbors;
     }
 
-    private boolean isValidCell(int row, int col) {
-        return row > 0 && row < rows - 1 &&
-                col > 0 && col < cols - 1 &&
-                row % 2 == 1 && col % 2 == 1;
+    private int countExits(int index) {
+        int exits = 0;
+        if (cells[index - cols] != WALL) exits++;
+        if (cells[index + cols] != WALL) exits++;
+        if (cells[index - 1] != WALL) exits++;
+        if (cells[index + 1] != WALL) exits++;
+        return exits;
     }
 
     private void addBorders() {
         for (int col = 0; col < cols; col++) {
-            maze[0][col] = new Cell(Cell.CellType.WALL);
-            maze[rows - 1][col] = new Cell(Cell.CellType.WALL);
+            cells[col] = WALL;
+            cells[(rows - 1) * cols + col] = WALL;
         }
 
         for (int row = 0; row < rows; row++) {
-            maze[row][0] = new Cell(Cell.CellType.WALL);
-            maze[row][cols - 1] = new Cell(Cell.CellType.WALL);
+            cells[row * cols] = WALL;
+            cells[row * cols + cols - 1] = WALL;
         }
     }
 
     private void addDots() {
         for (int row = 1; row < rows - 1; row++) {
-            for (int col = 1; col < cols - 1; col++) {
-                if (maze[row][col].getType() == Cell.CellType.EMPTY) {
-                    if (random.nextDouble() < 0.9) {
-                        maze[row][col] = new Cell(Cell.CellType.DOT);
-                    } else {
-                        maze[row][col] = new Cell(Cell.CellType.POWER_PELLET);
-                    }
+            for (int index = row * cols + 1; index < (row + 1) * cols - 1; index++) {
+                if (cells[index] == EMPTY) {
+                    cells[index] = random.nextDouble() < 0.9 ? DOT : POWER_PELLET;
                 }
             }
         }
@@ -125,67 +214,73 @@ public class MazeGenerator {
         int centerRow = rows / 2;
         int centerCol = cols / 2;
 
-        int[] pacmanStart = findNearestEmptyCell(centerRow, centerCol);
-        if (pacmanStart != null) {
-            maze[pacmanStart[0]][pacmanStart[1]] = new Cell(Cell.CellType.PACMAN);
+        int pacmanStart = findNearestEmptyCell(centerRow, centerCol);
+        if (pacmanStart >= 0) {
+            cells[pacmanStart] = PACMAN;
         }
 
-        int[] ghostSpawn = findNearestEmptyCell(1, 1);
-        if (ghostSpawn != null && !Arrays.equals(ghostSpawn, pacmanStart)) {
-            maze[ghostSpawn[0]][ghostSpawn[1]] = new Cell(Cell.CellType.EMPTY);
+        int ghostSpawn = findNearestEmptyCell(1, 1);
+        if (ghostSpawn >= 0 && ghostSpawn != pacmanStart) {
+            cells[ghostSpawn] = EMPTY;
         }
     }
 
-    private int[] findNearestEmptyCell(int targetRow, int targetCol) {
-        Queue<int[]> queue = new LinkedList<>();
-        boolean[][] visited = new boolean[rows][cols];
-
-        queue.offer(new int[]{targetRow, targetCol});
-        visited[targetRow][targetCol] = true;
-
-        while (!queue.isEmpty()) {
-            int[] current = queue.poll();
-            int row = current[0];
-            int col = current[1];
-
-            if (maze[row][col].getType() == Cell.CellType.EMPTY ||
-                    maze[row][col].getType() == Cell.CellType.DOT) {
-                return new int[]{row, col};
+    // BFS na buforze stosu; po zakończeniu zerowane są tylko odwiedzone bity
+    private int findNearestEmptyCell(int targetRow, int targetCol) {
+        int head = 0;
+        int tail = 0;
+        int start = targetRow * cols + targetCol;
+        push(tail++, start);
+        markVisited(start);
+        int found = -1;
+
+        while (head < tail) {
+            int current = stack[head++];
+            int row = current / cols;
+            int col = current % cols;
+
+            if (cells[current] == EMPTY || cells[current] == DOT) {
+                found = current;
+                break;
             }
 
-            int[][] directions = {{-1,0}, {1,0}, {0,-1}, {0,1}};
-            for (int[] dir : directions) {
-                int newRow = row + dir[0];
-                int newCol = col + dir[1];
-
-                if (newRow >= 0 && newRow < rows &&
-                        newCol >= 0 && newCol < cols &&
-                        !visited[newRow][newCol]) {
-                    visited[newRow][newCol] = true;
-                    queue.offer(new int[]{newRow, newCol});
-                }
+            if (row > 0 && !isVisited(current - cols)) {
+                markVisited(current - cols);
+                push(tail++, current - cols);
+            }
+            if (row < rows - 1 && !isVisited(current + cols)) {
+                markVisited(current + cols);
+                push(tail++, current + cols);
+            }
+            if (col > 0 && !isVisited(current - 1)) {
+                markVisited(current - 1);
+                push(tail++, current - 1);
+            }
+            if (col < cols - 1 && !isVisited(current + 1)) {
+                markVisited(current + 1);
+                push(tail++, current + 1);
             }
         }
 
-        return null;
+        for (int i = 0; i < tail; i++) {
+            clearVisited(stack[i]);
+        }
+        return found;
     }
 
     public boolean isValidMaze() {
         int emptyCount = 0;
         int dotCount = 0;
 
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                Cell.CellType type = maze[row][col].getType();
-                if (type == Cell.CellType.EMPTY || type == Cell.CellType.PACMAN) {
-                    emptyCount++;
-                } else if (type == Cell.CellType.DOT || type == Cell.CellType.POWER_PELLET) {
-                    dotCount++;
-                }
+        for (byte type : cells) {
+            if (type == EMPTY || type == PACMAN) {
+                emptyCount++;
+            } else if (type == DOT || type == POWER_PELLET) {
+                dotCount++;
             }
         }
 
         double emptyRatio = (double)(emptyCount + dotCount) / (rows * cols);
         return emptyRatio >= 0.1;
     }
-}
\ No newline at end of file
+}
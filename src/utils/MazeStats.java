@@ -0,0 +1,36 @@
+package utils;
+
+// Pomiar jednej generacji: czas, szczytowa pamięć robocza silnika i wszystko, co zaalokował wątek
+public class MazeStats {
+    private final String engineName;
+    private final int rows;
+    private final int cols;
+    private final long generationNanos;
+    private final long peakWorkingBytes;
+    private final long allocatedBytes;
+
+    public MazeStats(String engineName, int rows, int cols, long generationNanos,
+                     long peakWorkingBytes, long allocatedBytes) {
+        this.engineName = engineName;
+        this.rows = rows;
+        this.cols = cols;
+        this.generationNanos = generationNanos;
+        this.peakWorkingBytes = peakWorkingBytes;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public String getEngineName() { return engineName; }
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public long getGenerationNanos() { return generationNanos; }
+    public long getPeakWorkingBytes() { return peakWorkingBytes; }
+    // -1, jeśli JVM nie udostępnia licznika alokacji wątku
+    public long getAllocatedBytes() { return allocatedBytes; }
+
+    @Override
+    public String toString() {
+        return String.format("%s %dx%d: %.1f ms, working %.1f KB, allocated %.1f KB",
+                engineName, rows, cols, generationNanos / 1e6, peakWorkingBytes / 1024.0,
+                allocatedBytes / 1024.0);
+    }
+}
@@ -0,0 +1,259 @@
+package utils;
+
+import model.Cell;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Labirynt generowany równolegle w kafelkach: każdy kafelek jest osobnym idealnym labiryntem
+// (DFS), a potem kafelki łączy drzewo rozpinające (Kruskal, union-find) po jednym przejściu
+// na wybraną granicę. Losowość zależy tylko od ziarna i numeru kafelka, nie od liczby wątków.
+public class ParallelMazeGenerator {
+
+    private static final byte WALL = (byte) Cell.CellType.WALL.ordinal();
+    private static final byte EMPTY = (byte) Cell.CellType.EMPTY.ordinal();
+    private static final byte DOT = (byte) Cell.CellType.DOT.ordinal();
+    private static final byte POWER_PELLET = (byte) Cell.CellType.POWER_PELLET.ordinal();
+    private static final byte PACMAN = (byte) Cell.CellType.PACMAN.ordinal();
+
+    public static final int DEFAULT_TILE_ROOMS = 64;
+    private static final int DOT_BAND_ROWS = 256;
+    private static final int START_SEARCH_LIMIT = 1 << 16;
+
+    private final int rows;
+    private final int cols;
+    private final long seed;
+    private final int tileRooms;
+    private final int roomRows;
+    private final int roomCols;
+    private final int tileRows;
+    private final int tileCols;
+    private byte[] cells;
+
+    public ParallelMazeGenerator(int rows, int cols) {
+        this(rows, cols, RandomStreams.newSeed());
+    }
+
+    public ParallelMazeGenerator(int rows, int cols, long seed) {
+        this(rows, cols, seed, DEFAULT_TILE_ROOMS);
+    }
+
+    public ParallelMazeGenerator(int rows, int cols, long seed, int tileRooms) {
+        this.rows = rows;
+        this.cols = cols;
+        this.seed = seed;
+        this.tileRooms = tileRooms;
+        this.roomRows = Math.max(0, (rows - 1) / 2);
+        this.roomCols = Math.max(0, (cols - 1) / 2);
+        this.tileRows = (roomRows + tileRooms - 1) / tileRooms;
+        this.tileCols = (roomCols + tileRooms - 1) / tileRooms;
+    }
+
+    public byte[] generateTypes() {
+        return generateTypes(ForkJoinPool.commonPool());
+    }
+
+    // Wynik nie zależy od pool - różna jest tylko liczba wątków, które go liczą
+    public byte[] generateTypes(ForkJoinPool pool) {
+        cells = new byte[rows * cols];
+        Arrays.fill(cells, WALL);
+
+        if (roomRows > 0 && roomCols > 0) {
+            pool.invoke(new TileTask(0, tileRows * tileCols));
+            stitchTiles();
+            pool.invoke(new DotTask(0, (rows + DOT_BAND_ROWS - 1) / DOT_BAND_ROWS));
+            placePacman();
+        }
+        return cells;
+    }
+
+    private class TileTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        TileTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                carveTile(from / tileCols, from % tileCols);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new TileTask(from, middle), new TileTask(middle, to));
+        }
+    }
+
+    private class DotTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        DotTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                addDots(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new DotTask(from, middle), new DotTask(middle, to));
+        }
+    }
+
+    // Kafelek pisze tylko swoje pokoje i ściany między nimi - kafelki nie dzielą żadnego pola
+    private void carveTile(int tileRow, int tileCol) {
+        int firstRoomRow = tileRow * tileRooms;
+        int firstRoomCol = tileCol * tileRooms;
+        int height = Math.min(tileRooms, roomRows - firstRoomRow);
+        int width = Math.min(tileRooms, roomCols - firstRoomCol);
+
+        long tileSeed = RandomStreams.mix(seed, tileRow * (long) tileCols + tileCol);
+        SplittableRandom random = new SplittableRandom(tileSeed);
+        boolean[] visited = new boolean[height * width];
+        int[] stack = new int[height * width];
+        int[] neighbors = new int[4];
+        int top = 0;
+
+        stack[top++] = 0;
+        visited[0] = true;
+        openRoom(firstRoomRow, firstRoomCol);
+
+        while (top > 0) {
+            int current = stack[top - 1];
+            int localRow = current / width;
+            int localCol = current % width;
+
+            int count = 0;
+            if (localRow > 0 && !visited[current - width]) neighbors[count++] = current - width;
+            if (localCol < width - 1 && !visited[current + 1]) neighbors[count++] = current + 1;
+            if (localRow < height - 1 && !visited[current + width]) neighbors[count++] = current + width;
+            if (localCol > 0 && !visited[current - 1]) neighbors[count++] = current - 1;
+
+            if (count == 0) {
+                top--;
+                continue;
+            }
+
+            int next = neighbors[random.nextInt(count)];
+            visited[next] = true;
+            openRoom(firstRoomRow + next / width, firstRoomCol + next % width);
+            openBetween(firstRoomRow + localRow, firstRoomCol + localCol,
+                    firstRoomRow + next / width, firstRoomCol + next % width);
+            stack[top++] = next;
+        }
+    }
+
+    // Krawędzie między sąsiednimi kafelkami w losowej (z ziarna) kolejności; krawędź, która
+    // łączy dwa różne zbiory, dostaje jedno przejście w losowym miejscu granicy
+    private void stitchTiles() {
+        int tileCount = tileRows * tileCols;
+        int[] edges = new int[2 * tileCount];
+        int edgeCount = 0;
+        for (int tile = 0; tile < tileCount; tile++) {
+            if (tile % tileCols < tileCols - 1) edges[edgeCount++] = 2 * tile;
+            if (tile / tileCols < tileRows - 1) edges[edgeCount++] = 2 * tile + 1;
+        }
+
+        SplittableRandom random = new SplittableRandom(RandomStreams.mix(seed, -1));
+        for (int i = edgeCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = edges[i];
+            edges[i] = edges[j];
+            edges[j] = swap;
+        }
+
+        int[] parent = new int[tileCount];
+        for (int tile = 0; tile < tileCount; tile++) {
+            parent[tile] = tile;
+        }
+
+        for (int i = 0; i < edgeCount; i++) {
+            int tile = edges[i] / 2;
+            boolean vertical = edges[i] % 2 == 1;
+            int other = vertical ? tile + tileCols : tile + 1;
+            int a = find(parent, tile);
+            int b = find(parent, other);
+            if (a == b) {
+                continue;
+            }
+            parent[b] = a;
+            openDoor(tile / tileCols, tile % tileCols, vertical, random);
+        }
+    }
+
+    private void openDoor(int tileRow, int tileCol, boolean vertical, SplittableRandom random) {
+        if (vertical) {
+            int roomRow = (tileRow + 1) * tileRooms - 1;
+            int firstCol = tileCol * tileRooms;
+            int roomCol = firstCol + random.nextInt(Math.min(tileRooms, roomCols - firstCol));
+            openBetween(roomRow, roomCol, roomRow + 1, roomCol);
+        } else {
+            int roomCol = (tileCol + 1) * tileRooms - 1;
+            int firstRow = tileRow * tileRooms;
+            int roomRow = firstRow + random.nextInt(Math.min(tileRooms, roomRows - firstRow));
+            openBetween(roomRow, roomCol, roomRow, roomCol + 1);
+        }
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private void openRoom(int roomRow, int roomCol) {
+        cells[(2 * roomRow + 1) * cols + 2 * roomCol + 1] = EMPTY;
+    }
+
+    private void openBetween(int roomRowA, int roomColA, int roomRowB, int roomColB) {
+        cells[(roomRowA + roomRowB + 1) * cols + roomColA + roomColB + 1] = EMPTY;
+    }
+
+    private void addDots(int band) {
+        SplittableRandom random = new SplittableRandom(RandomStreams.mix(seed, -2 - band));
+        int lastRow = Math.min(rows - 1, (band + 1) * DOT_BAND_ROWS);
+        for (int row = Math.max(1, band * DOT_BAND_ROWS); row < lastRow; row++) {
+            for (int index = row * cols + 1; index < (row + 1) * cols - 1; index++) {
+                if (cells[index] == EMPTY) {
+                    cells[index] = random.nextDouble() < 0.9 ? DOT : POWER_PELLET;
+                }
+            }
+        }
+    }
+
+    private void placePacman() {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        Set<Integer> visited = new HashSet<>();
+        int start = (rows / 2) * cols + cols / 2;
+        queue.add(start);
+        visited.add(start);
+
+        while (!queue.isEmpty() && visited.size() < START_SEARCH_LIMIT) {
+            int index = queue.poll();
+            if (cells[index] == EMPTY || cells[index] == DOT) {
+                cells[index] = PACMAN;
+                return;
+            }
+
+            int row = index / cols;
+            int col = index % cols;
+            if (row > 0 && visited.add(index - cols)) queue.add(index - cols);
+            if (row < rows - 1 && visited.add(index + cols)) queue.add(index + cols);
+            if (col > 0 && visited.add(index - 1)) queue.add(index - 1);
+            if (col < cols - 1 && visited.add(index + 1)) queue.add(index + 1);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package utils;
+
+import java.util.SplittableRandom;
+
+// Jedno ziarno gry rozdzielone na niezależne strumienie SplittableRandom: każdy podsystem i każdy
+// duch losuje ze swojego. Ziarno strumienia zależy tylko od ziarna gry i nazwy strumienia (albo id
+// ducha), a nie od kolejności tworzenia - ta sama gra powtarza się dla tego samego (ziarno, wejście).
+public final class RandomStreams {
+
+    public enum Stream {
+        MAZE, DOTS, POWER_UPS, GHOST_SPAWNS, GHOSTS
+    }
+
+    private final long seed;
+
+    public RandomStreams(long seed) {
+        this.seed = seed;
+    }
+
+    // Ziarno dla gry bez podanego ziarna
+    public static long newSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long seedFor(Stream stream) {
+        return mix(seed, stream.ordinal() + 1);
+    }
+
+    public SplittableRandom create(Stream stream) {
+        return new SplittableRandom(seedFor(stream));
+    }
+
+    public long ghostSeed(int ghostId) {
+        return mix(seedFor(Stream.GHOSTS), ghostId);
+    }
+
+    // Mieszanie splitmix64 - sąsiednie sole dają niezależne ziarna
+    public static long mix(long seed, long salt) {
+        long z = seed ^ (salt * 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,86 @@
+package utils;
+
+import model.GameModel;
+
+// Parametry jednej sesji bez interfejsu. Niezmienne - zmiana zwraca nową kopię.
+public final class SessionConfig {
+
+    private final int rows;
+    private final int cols;
+    private final boolean endless;
+    private final int ghosts;
+    private final long seed;
+    private final int tickMillis;
+    private final boolean realTime;
+    private final long maxTicks;
+    // null - domyślny generator planszy
+    private final MazeAlgorithm mazeAlgorithm;
+    private final double braidRatio;
+
+    public SessionConfig(int rows, int cols, int ghosts, long seed) {
+        this(rows, cols, false, ghosts, seed, ThreadManager.DEFAULT_TICK_MILLIS, false, Long.MAX_VALUE,
+                null, 0);
+    }
+
+    private SessionConfig(int rows, int cols, boolean endless, int ghosts, long seed,
+                          int tickMillis, boolean realTime, long maxTicks,
+                          MazeAlgorithm mazeAlgorithm, double braidRatio) {
+        if (ghosts < 1 || ghosts > GameModel.MAX_GHOSTS) {
+            throw new IllegalArgumentException("Ghost count must be between 1 and " + GameModel.MAX_GHOSTS);
+        }
+        if (tickMillis <= 0 || maxTicks <= 0) {
+            throw new IllegalArgumentException("Tick length and tick limit must be positive");
+        }
+        if (braidRatio < 0 || braidRatio > 1) {
+            throw new IllegalArgumentException("Braid ratio must be between 0 and 1");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.endless = endless;
+        this.ghosts = ghosts;
+        this.seed = seed;
+        this.tickMillis = tickMillis;
+        this.realTime = realTime;
+        this.maxTicks = maxTicks;
+        this.mazeAlgorithm = mazeAlgorithm;
+        this.braidRatio = braidRatio;
+    }
+
+    public SessionConfig withEndless(boolean endless) {
+        return new SessionConfig(rows, cols, endless, ghosts, seed, tickMillis, realTime, maxTicks,
+                mazeAlgorithm, braidRatio);
+    }
+
+    public SessionConfig withTickMillis(int tickMillis) {
+        return new SessionConfig(rows, cols, endless, ghosts, seed, tickMillis, realTime, maxTicks,
+                mazeAlgorithm, braidRatio);
+    }
+
+    // true: ticki co tickMillis czasu rzeczywistego; false: tak szybko, jak pozwala procesor
+    public SessionConfig withRealTime(boolean realTime) {
+        return new SessionConfig(rows, cols, endless, ghosts, seed, tickMillis, realTime, maxTicks,
+                mazeAlgorithm, braidRatio);
+    }
+
+    public SessionConfig withMaxTicks(long maxTicks) {
+        return new SessionConfig(rows, cols, endless, ghosts, seed, tickMillis, realTime, maxTicks,
+                mazeAlgorithm, braidRatio);
+    }
+
+    // Labirynt z wybranego algorytmu (null - domyślny); nie dotyczy plansz bez końca
+    public SessionConfig withMaze(MazeAlgorithm mazeAlgorithm, double braidRatio) {
+        return new SessionConfig(rows, cols, endless, ghosts, seed, tickMillis, realTime, maxTicks,
+                mazeAlgorithm, braidRatio);
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public boolean isEndless() { return endless; }
+    public int getGhosts() { return ghosts; }
+    public long getSeed() { return seed; }
+    public int getTickMillis() { return tickMillis; }
+    public boolean isRealTime() { return realTime; }
+    public long getMaxTicks() { return maxTicks; }
+    public MazeAlgorithm getMazeAlgorithm() { return mazeAlgorithm; }
+    public double getBraidRatio() { return braidRatio; }
+}
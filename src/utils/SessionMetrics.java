@@ -0,0 +1,64 @@
+package utils;
+
+import model.GameModel;
+
+// Odczyt metryk jednej sesji w danej chwili
+public final class SessionMetrics {
+
+    private final long sessionId;
+    private final GameSession.State state;
+    private final GameModel.GameState gameState;
+    private final long ticks;
+    private final long totalTickNanos;
+    private final long maxTickNanos;
+    private final long overrunTicks;
+    private final long droppedTicks;
+    private final int score;
+    private final int lives;
+    private final long gameTime;
+    private final long ageNanos;
+    private final String failure;
+
+    SessionMetrics(long sessionId, GameSession.State state, GameModel.GameState gameState, long ticks,
+                   long totalTickNanos, long maxTickNanos, long overrunTicks, long droppedTicks,
+                   int score, int lives, long gameTime, long ageNanos, String failure) {
+        this.sessionId = sessionId;
+        this.state = state;
+        this.gameState = gameState;
+        this.ticks = ticks;
+        this.totalTickNanos = totalTickNanos;
+        this.maxTickNanos = maxTickNanos;
+        this.overrunTicks = overrunTicks;
+        this.droppedTicks = droppedTicks;
+        this.score = score;
+        this.lives = lives;
+        this.gameTime = gameTime;
+        this.ageNanos = ageNanos;
+        this.failure = failure;
+    }
+
+    public long getSessionId() { return sessionId; }
+    public GameSession.State getState() { return state; }
+    public GameModel.GameState getGameState() { return gameState; }
+    public long getTicks() { return ticks; }
+    public long getTotalTickNanos() { return totalTickNanos; }
+    public long getMaxTickNanos() { return maxTickNanos; }
+    public long getOverrunTicks() { return overrunTicks; }
+    public long getDroppedTicks() { return droppedTicks; }
+    public int getScore() { return score; }
+    public int getLives() { return lives; }
+    public long getGameTime() { return gameTime; }
+    public long getAgeNanos() { return ageNanos; }
+    public String getFailure() { return failure; }
+
+    public long getMeanTickNanos() {
+        return ticks > 0 ? totalTickNanos / ticks : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Session %d: %s/%s ticks=%d mean=%dus max=%dus overruns=%d score=%d lives=%d",
+                sessionId, state, gameState, ticks, getMeanTickNanos() / 1000, maxTickNanos / 1000,
+                overrunTicks, score, lives);
+    }
+}
@@ -1,159 +1,191 @@
 package utils;
 
 import model.GameModel;
-import view.GameView;
-import javax.swing.SwingUtilities;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Jeden wątek planisty dla logiki gry; widok odświeża się sam, gdy model zgłosi zmianę.
+// Logika chodzi ze stałym krokiem: akumulator na System.nanoTime() odlicza należne ticki,
+// więc czas aktualizacji i opóźnienia planisty nie spowalniają gry. Po zatorze nadrabiane jest
+// najwyżej maxCatchUpTicks ticków naraz - reszta przepada i jest liczona jako pominięta.
+// W pauzie pętla nie jest planowana, więc wątek śpi.
 public class ThreadManager {
 
-    private Thread gameThread;
-    private Thread animationThread;
-    private Thread powerUpThread;
-    private Thread renderThread;
+    public static final int DEFAULT_TICK_MILLIS = 80;
+    public static final int DEFAULT_MAX_CATCH_UP_TICKS = 5;
+
+    private final ScheduledExecutorService scheduler;
+    private final Object loopLock = new Object();
+    private volatile Thread loopThread;
+
+    private GameModel gameModel;
+    private ScheduledFuture<?> gameLoop;
+    // Zmienia się przy każdym starcie pętli - przebieg ze starej pętli już się nie planuje
+    private long loopGeneration;
 
     private volatile boolean gameRunning;
     private volatile boolean threadsPaused;
-    private final Object pauseLock = new Object();
+    private volatile long tickNanos;
+    private volatile int maxCatchUpTicks;
 
-    // SZYBSZE AKTUALIZACJE
-    private static final int GAME_UPDATE_DELAY = 80;      // Zmniejszone z 100 na 80
-    private static final int ANIMATION_UPDATE_DELAY = 150; // Zmniejszone z 200 na 150
-    private static final int POWERUP_CHECK_DELAY = 500;   // Zmniejszone z 1000 na 500
-    private static final int RENDER_UPDATE_DELAY = 40;    // Zmniejszone z 50 na 40
+    // Stan pętli - używany tylko z wątku planisty
+    private long lastLoopTime;
+    private long accumulator;
+    // Ticki pominięte w trwającym zatorze; komunikat tylko na początku i na końcu zatoru
+    private long droppedInBacklog;
+
+    private volatile long tickCount;
+    private volatile long overrunTicks;
+    private volatile long droppedTicks;
+    private volatile long maxTickNanos;
 
     public ThreadManager() {
+        this(DEFAULT_TICK_MILLIS);
+    }
+
+    public ThreadManager(int tickMillis) {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "GameLoopThread");
+            thread.setDaemon(true);
+            loopThread = thread;
+            return thread;
+        });
         this.gameRunning = false;
         this.threadsPaused = false;
+        this.maxCatchUpTicks = DEFAULT_MAX_CATCH_UP_TICKS;
+        setTickMillis(tickMillis);
     }
 
-    public void startGameThreads(GameModel gameModel, GameView gameView) {
+    // Zmiana obowiązuje od następnego przebiegu pętli
+    public void setTickMillis(int tickMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick length must be positive: " + tickMillis);
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+    }
+
+    public int getTickMillis() {
+        return (int) TimeUnit.NANOSECONDS.toMillis(tickNanos);
+    }
+
+    // Ile zaległych ticków jeden przebieg pętli może nadrobić, zanim resztę pominie
+    public void setMaxCatchUpTicks(int maxCatchUpTicks) {
+        if (maxCatchUpTicks <= 0) {
+            throw new IllegalArgumentException("Catch-up limit must be positive: " + maxCatchUpTicks);
+        }
+        this.maxCatchUpTicks = maxCatchUpTicks;
+    }
+
+    public int getMaxCatchUpTicks() {
+        return maxCatchUpTicks;
+    }
+
+    public void startGameThreads(GameModel gameModel) {
         stopAllThreads();
 
-        gameRunning = true;
-        threadsPaused = false;
-
-        startGameLogicThread(gameModel);
-        startAnimationThread(gameView);
-        startPowerUpThread(gameModel);
-        startRenderThread(gameView);
-    }
-
-    private void startGameLogicThread(GameModel gameModel) {
-        gameThread = new Thread(() -> {
-            while (gameRunning) {
-                checkPause();
-
-                try {
-                    gameModel.updateGame();
-                    Thread.sleep(GAME_UPDATE_DELAY);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (Exception e) {
-                    System.err.println("Error in game logic thread: " + e.getMessage());
-                }
-            }
-        }, "GameLogicThread");
-
-        gameThread.setDaemon(true);
-        gameThread.start();
-    }
-
-    private void startAnimationThread(GameView gameView) {
-        animationThread = new Thread(() -> {
-            while (gameRunning) {
-                checkPause();
-
-                try {
-                    SwingUtilities.invokeLater(() -> {
-                        if (gameView.getGameTable() != null) {
-                            gameView.getGameTable().repaint();
-                        }
-                    });
-
-                    Thread.sleep(ANIMATION_UPDATE_DELAY);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (Exception e) {
-                    System.err.println("Error in animation thread: " + e.getMessage());
-                }
-            }
-        }, "AnimationThread");
+        synchronized (loopLock) {
+            this.gameModel = gameModel;
+            gameRunning = true;
+            threadsPaused = false;
+            tickCount = 0;
+            overrunTicks = 0;
+            droppedTicks = 0;
+            maxTickNanos = 0;
 
-        animationThread.setDaemon(true);
-        animationThread.start();
+            startLoop();
+        }
     }
 
-    private void startPowerUpThread(GameModel gameModel) {
-        powerUpThread = new Thread(() -> {
-            while (gameRunning) {
-                checkPause();
+    // Czas liczony od teraz - okres bez pętli (start, pauza) nie jest nadrabiany, a wejście
+    // z tego okresu przepada
+    private void startLoop() {
+        loopGeneration++;
+        GameModel model = gameModel;
+        scheduler.execute(() -> {
+            lastLoopTime = System.nanoTime();
+            accumulator = 0;
+            droppedInBacklog = 0;
+            model.discardInput();
+        });
+        scheduleGameLoop(gameModel, loopGeneration, 0);
+    }
+
+    private void scheduleGameLoop(GameModel gameModel, long generation, long delayNanos) {
+        gameLoop = scheduler.schedule(() -> runGameLoop(gameModel, generation), delayNanos, TimeUnit.NANOSECONDS);
+    }
 
-                try {
-                    Thread.sleep(POWERUP_CHECK_DELAY);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (Exception e) {
-                    System.err.println("Error in power-up thread: " + e.getMessage());
-                }
+    // Jeden przebieg: wykonuje wszystkie należne ticki (do limitu nadrabiania) i planuje się
+    // na chwilę, w której wypada następny
+    private void runGameLoop(GameModel gameModel, long generation) {
+        long step = tickNanos;
+        int maxTicks = maxCatchUpTicks;
+        long now = System.nanoTime();
+        accumulator += now - lastLoopTime;
+        lastLoopTime = now;
+
+        int ticks = 0;
+        while (accumulator >= step && ticks < maxTicks) {
+            long tickStart = System.nanoTime();
+            runSafely("game logic", gameModel::updateGame);
+            long tickTime = System.nanoTime() - tickStart;
+
+            tickCount++;
+            maxTickNanos = Math.max(maxTickNanos, tickTime);
+            if (tickTime > step) {
+                overrunTicks++;
             }
-        }, "PowerUpThread");
-
-        powerUpThread.setDaemon(true);
-        powerUpThread.start();
-    }
-
-    private void startRenderThread(GameView gameView) {
-        renderThread = new Thread(() -> {
-            while (gameRunning) {
-                checkPause();
-
-                try {
-                    SwingUtilities.invokeLater(() -> {
-                        if (gameView.getTableModel() != null) {
-                            gameView.getTableModel().fireTableDataChanged();
-                        }
-                    });
-
-                    Thread.sleep(RENDER_UPDATE_DELAY);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (Exception e) {
-                    System.err.println("Error in render thread: " + e.getMessage());
-                }
+            accumulator -= step;
+            ticks++;
+        }
+
+        if (accumulator >= step) {
+            long dropped = accumulator / step;
+            droppedTicks += dropped;
+            accumulator -= dropped * step;
+            if (droppedInBacklog == 0) {
+                System.err.println("Game loop behind schedule, dropping ticks");
             }
-        }, "RenderThread");
+            droppedInBacklog += dropped;
+        } else if (droppedInBacklog > 0) {
+            System.err.println("Game loop back on schedule, dropped " + droppedInBacklog + " tick(s)");
+            droppedInBacklog = 0;
+        }
 
-        renderThread.setDaemon(true);
-        renderThread.start();
+        synchronized (loopLock) {
+            if (gameRunning && !threadsPaused && generation == loopGeneration) {
+                scheduleGameLoop(gameModel, generation, step - accumulator);
+            }
+        }
     }
 
-    private void checkPause() {
-        synchronized (pauseLock) {
-            while (threadsPaused && gameRunning) {
-                try {
-                    pauseLock.wait();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return;
-                }
-            }
+    private void runSafely(String taskName, Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            System.err.println("Error in " + taskName + " task: " + e.getMessage());
         }
     }
 
     public void pauseThreads() {
-        synchronized (pauseLock) {
+        synchronized (loopLock) {
             threadsPaused = true;
+            cancel(gameLoop);
         }
     }
 
     public void resumeThreads() {
-        synchronized (pauseLock) {
+        synchronized (loopLock) {
+            if (!threadsPaused) {
+                return;
+            }
             threadsPaused = false;
-            pauseLock.notifyAll();
+            if (gameRunning) {
+                startLoop();
+            }
         }
     }
 
@@ -162,42 +194,39 @@ public class ThreadManager {
     }
 
     public void stopAllThreads() {
-        gameRunning = false;
-
-        synchronized (pauseLock) {
+        synchronized (loopLock) {
+            gameRunning = false;
             threadsPaused = false;
-            pauseLock.notifyAll();
+            cancel(gameLoop);
+            gameLoop = null;
+            gameModel = null;
         }
-
-        interruptThread(gameThread);
-        interruptThread(animationThread);
-        interruptThread(powerUpThread);
-        interruptThread(renderThread);
-
-        waitForThread(gameThread);
-        waitForThread(animationThread);
-        waitForThread(powerUpThread);
-        waitForThread(renderThread);
+        waitForScheduler();
     }
 
-    private void interruptThread(Thread thread) {
-        if (thread != null && thread.isAlive()) {
-            thread.interrupt();
+    private void cancel(ScheduledFuture<?> task) {
+        if (task != null) {
+            task.cancel(false);
         }
     }
 
-    private void waitForThread(Thread thread) {
-        if (thread != null && thread.isAlive()) {
-            try {
-                thread.join(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+    // Trwający tick kończy się przed powrotem - jak wcześniej join na wątku logiki
+    private void waitForScheduler() {
+        if (scheduler.isShutdown() || Thread.currentThread() == loopThread) {
+            return;
+        }
+        try {
+            scheduler.submit(() -> { }).get(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.err.println("Game loop did not stop in time: " + e.getMessage());
         }
     }
 
     public void shutdown() {
         stopAllThreads();
+        scheduler.shutdownNow();
     }
 
     public boolean isRunning() {
@@ -205,11 +234,24 @@ public class ThreadManager {
     }
 
     public int getActiveThreadCount() {
-        int count = 0;
-        if (gameThread != null && gameThread.isAlive()) count++;
-        if (animationThread != null && animationThread.isAlive()) count++;
-        if (powerUpThread != null && powerUpThread.isAlive()) count++;
-        if (renderThread != null && renderThread.isAlive()) count++;
-        return count;
-    }
-}
\ No newline at end of file
+        return gameRunning ? 1 : 0;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    // Ticki, których aktualizacja trwała dłużej niż jeden krok
+    public long getOverrunTicks() {
+        return overrunTicks;
+    }
+
+    // Ticki porzucone po przekroczeniu limitu nadrabiania
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    public long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+}
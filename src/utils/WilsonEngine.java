@@ -0,0 +1,79 @@
+package utils;
+
+import java.util.random.RandomGenerator;
+
+// Błądzenie losowe z wymazywaniem pętli - każdy labirynt idealny jest równie prawdopodobny.
+// Pamięta tylko ostatni kierunek wyjścia z każdego pokoju, więc pętle wymazują się same.
+public class WilsonEngine implements MazeEngine {
+
+    private static final int UP = 0;
+    private static final int DOWN = 1;
+    private static final int LEFT = 2;
+    private static final int RIGHT = 3;
+
+    @Override
+    public String getName() {
+        return "Wilson";
+    }
+
+    @Override
+    public long carve(byte[] cells, int rows, int cols, RandomGenerator random) {
+        int roomRows = MazeEngine.roomRows(rows);
+        int roomCols = MazeEngine.roomCols(cols);
+        int roomCount = roomRows * roomCols;
+        if (roomCount == 0) {
+            return 0;
+        }
+
+        long[] inMaze = new long[(roomCount + 63) >>> 6];
+        byte[] exit = new byte[roomCount];
+        int[] options = new int[4];
+
+        int first = random.nextInt(roomCount);
+        inMaze[first >>> 6] |= 1L << first;
+        cells[MazeEngine.roomIndex(first / roomCols, first % roomCols, cols)] = EMPTY;
+
+        for (int start = 0; start < roomCount; start++) {
+            if ((inMaze[start >>> 6] & (1L << start)) != 0) {
+                continue;
+            }
+
+            int room = start;
+            while ((inMaze[room >>> 6] & (1L << room)) == 0) {
+                int roomRow = room / roomCols;
+                int roomCol = room % roomCols;
+                int count = 0;
+                if (roomRow > 0) options[count++] = UP;
+                if (roomRow < roomRows - 1) options[count++] = DOWN;
+                if (roomCol > 0) options[count++] = LEFT;
+                if (roomCol < roomCols - 1) options[count++] = RIGHT;
+
+                int direction = options[random.nextInt(count)];
+                exit[room] = (byte) direction;
+                room = step(room, direction, roomCols);
+            }
+
+            room = start;
+            while ((inMaze[room >>> 6] & (1L << room)) == 0) {
+                inMaze[room >>> 6] |= 1L << room;
+                int next = step(room, exit[room], roomCols);
+                int from = MazeEngine.roomIndex(room / roomCols, room % roomCols, cols);
+                int to = MazeEngine.roomIndex(next / roomCols, next % roomCols, cols);
+                cells[from] = EMPTY;
+                cells[(from + to) >>> 1] = EMPTY;
+                room = next;
+            }
+        }
+
+        return inMaze.length * 8L + exit.length;
+    }
+
+    private static int step(int room, int direction, int roomCols) {
+        switch (direction) {
+            case UP: return room - roomCols;
+            case DOWN: return room + roomCols;
+            case LEFT: return room - 1;
+            default: return room + 1;
+        }
+    }
+}
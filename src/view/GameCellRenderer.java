@@ -20,9 +20,9 @@ public class GameCellRenderer extends DefaultTableCellRenderer {
     private static final Color GHOST_ORANGE = Color.ORANGE;
     private static final Color POWERUP_COLOR = Color.MAGENTA;
 
+    public static final int ANIMATION_SPEED = 600;
+
     private int animationFrame = 0;
-    private long lastAnimationUpdate = 0;
-    private static final int ANIMATION_SPEED = 600;
 
     public GameCellRenderer() {
         setHorizontalAlignment(JLabel.CENTER);
@@ -34,8 +34,6 @@ public class GameCellRenderer extends DefaultTableCellRenderer {
     public Component getTableCellRendererComponent(JTable table, Object value,
                                                    boolean isSelected, boolean hasFocus, int row, int column) {
 
-        updateAnimation();
-
         if (value instanceof Cell) {
             Cell cell = (Cell) value;
             renderCell(cell);
@@ -44,9 +42,6 @@ public class GameCellRenderer extends DefaultTableCellRenderer {
             setText("");
         }
 
-        // Wymuś repaint dla animacji
-        table.repaint();
-
         return this;
     }
 
@@ -129,7 +124,7 @@ public class GameCellRenderer extends DefaultTableCellRenderer {
         setFont(new Font("Segoe UI Emoji", Font.BOLD, 16));
         Color ghostColor;
 
-        switch (ghostId) {
+        switch (ghostId % 4) {
             case 0:
                 ghostColor = GHOST_RED;
                 setText("👻");
@@ -197,12 +192,9 @@ public class GameCellRenderer extends DefaultTableCellRenderer {
         }
     }
 
-    private void updateAnimation() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastAnimationUpdate > ANIMATION_SPEED) {
-            animationFrame++;
-            lastAnimationUpdate = currentTime;
-        }
+    // Klatkę animacji przesuwa widok co ANIMATION_SPEED ms, nie samo malowanie
+    public void nextAnimationFrame() {
+        animationFrame++;
     }
 
     @Override
@@ -1,30 +1,31 @@
 package view;
 
+import model.BoardSnapshot;
 import model.Cell;
+import model.GameSnapshot;
 import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
 
 public class GameTableModel extends AbstractTableModel {
-    private Cell[][] gameBoard;
+    private static final Cell EMPTY_CELL = Cell.of(Cell.CellType.EMPTY);
+
+    public static final int MIN_SIZE = 10;
+    public static final int MAX_SIZE = 10000;
+
+    // Niezmienny stan gry - tabela nie trzyma własnej kopii komórek
+    private volatile GameSnapshot snapshot;
     private final int rows;
     private final int columns;
 
     public GameTableModel(int rows, int columns) {
-        if (rows < 10 || rows > 100 || columns < 10 || columns > 100) {
-            throw new IllegalArgumentException("Rozmiar planszy musi być między 10 a 100!");
+        if (rows < MIN_SIZE || rows > MAX_SIZE || columns < MIN_SIZE || columns > MAX_SIZE) {
+            throw new IllegalArgumentException("Rozmiar planszy musi być między " + MIN_SIZE + " a " + MAX_SIZE + "!");
         }
 
         this.rows = rows;
         this.columns = columns;
-        this.gameBoard = new Cell[rows][columns];
-        initializeBoard();
-    }
-
-    private void initializeBoard() {
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < columns; col++) {
-                gameBoard[row][col] = new Cell(Cell.CellType.EMPTY);
-            }
-        }
+        this.snapshot = null;
     }
 
     @Override
@@ -40,7 +41,7 @@ public class GameTableModel extends AbstractTableModel {
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
         if (isValidPosition(rowIndex, columnIndex)) {
-            return gameBoard[rowIndex][columnIndex];
+            return getCell(rowIndex, columnIndex);
         }
         return null;
     }
@@ -55,43 +56,101 @@ public class GameTableModel extends AbstractTableModel {
         return Cell.class;
     }
 
-    public synchronized void updateCell(int row, int col, Cell newCell) {
-        if (isValidPosition(row, col)) {
-            gameBoard[row][col] = newCell;
-            fireTableCellUpdated(row, col);
+    public Cell getCell(int row, int col) {
+        GameSnapshot current = snapshot;
+        if (current == null || current.getBoard() == null || !current.getBoard().isValidPosition(row, col)) {
+            return EMPTY_CELL;
         }
+        return current.getDisplayCell(row, col);
     }
 
-    public synchronized Cell getCell(int row, int col) {
-        if (isValidPosition(row, col)) {
-            return gameBoard[row][col];
+    // Podmienia stan i zgłasza tylko komórki, które się zmieniły (teren i pola postaci)
+    public void updateSnapshot(GameSnapshot newSnapshot) {
+        GameSnapshot previousSnapshot = snapshot;
+        if (newSnapshot == null || newSnapshot.getBoard() == null || newSnapshot == previousSnapshot) {
+            return;
         }
-        return null;
-    }
 
-    public synchronized void updateBoard(Cell[][] newBoard) {
-        if (newBoard.length == rows && newBoard[0].length == columns) {
-            this.gameBoard = newBoard;
+        snapshot = newSnapshot;
+
+        BoardSnapshot previous = previousSnapshot != null ? previousSnapshot.getBoard() : null;
+        BoardSnapshot newBoard = newSnapshot.getBoard();
+
+        if (previous == null || previous.getBoardId() != newBoard.getBoardId()) {
             fireTableDataChanged();
+            return;
+        }
+
+        if (newBoard != previous) {
+            fireChangedCells(previous, newBoard);
         }
+
+        fireMovedEntities(previousSnapshot, newSnapshot);
     }
 
-    public boolean isValidPosition(int row, int col) {
-        return row >= 0 && row < rows && col >= 0 && col < columns;
+    // Odświeża tylko pola, z których i na które postać się przesunęła
+    private void fireMovedEntities(GameSnapshot previous, GameSnapshot current) {
+        fireMoved(previous.getPacman(), current.getPacman());
+
+        int previousCount = previous.getGhosts().size();
+        int currentCount = current.getGhosts().size();
+        for (int i = 0; i < Math.max(previousCount, currentCount); i++) {
+            fireMoved(i < previousCount ? previous.getGhosts().get(i) : null,
+                    i < currentCount ? current.getGhosts().get(i) : null);
+        }
     }
 
-    public synchronized Cell[][] getBoardCopy() {
-        Cell[][] copy = new Cell[rows][columns];
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < columns; col++) {
-                copy[row][col] = new Cell(gameBoard[row][col]);
+    private void fireMoved(GameSnapshot.EntityState before, GameSnapshot.EntityState after) {
+        if (before != null && after != null
+                && before.getRow() == after.getRow() && before.getCol() == after.getCol()) {
+            return;
+        }
+        if (before != null && isValidPosition(before.getRow(), before.getCol())) {
+            fireTableCellUpdated(before.getRow(), before.getCol());
+        }
+        if (after != null && isValidPosition(after.getRow(), after.getCol())) {
+            fireTableCellUpdated(after.getRow(), after.getCol());
+        }
+    }
+
+    // Dużo zmian naraz (np. wczytany kawałek planszy) zgłaszane jest jako zakres wierszy
+    private void fireChangedCells(BoardSnapshot previous, BoardSnapshot newBoard) {
+        List<int[]> changed = new ArrayList<>();
+        newBoard.visitChangedCells(previous, (row, col) -> {
+            if (isValidPosition(row, col)) {
+                changed.add(new int[]{row, col});
+            }
+        });
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        if (changed.size() > columns) {
+            int minRow = Integer.MAX_VALUE;
+            int maxRow = Integer.MIN_VALUE;
+            for (int[] cell : changed) {
+                minRow = Math.min(minRow, cell[0]);
+                maxRow = Math.max(maxRow, cell[0]);
             }
+            fireTableRowsUpdated(minRow, maxRow);
+            return;
         }
-        return copy;
+
+        for (int[] cell : changed) {
+            fireTableCellUpdated(cell[0], cell[1]);
+        }
+    }
+
+    public boolean isValidPosition(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < columns;
+    }
+
+    public GameSnapshot getSnapshot() {
+        return snapshot;
     }
 
-    public synchronized void clearBoard() {
-        initializeBoard();
+    public void clearBoard() {
+        snapshot = null;
         fireTableDataChanged();
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,7 @@
 package view;
 
 import model.GameModel;
-import model.PowerUp;
+import model.GameSnapshot;
 import controller.GameController;
 import javax.swing.*;
 import java.awt.*;
@@ -17,9 +17,20 @@ public class GameView extends JFrame implements GameModel.GameModelListener {
     private JLabel timeLabel;
     private JPanel powerUpPanel;
     private GameController controller;
+    private long displayedEpoch = -1;
+    private GameCellRenderer cellRenderer;
+    private final RepaintCoordinator repaints;
+    private final Timer animationTimer;
+    private volatile GameModel changedModel;
+    private volatile boolean animationAdvanced;
 
     public GameView(GameController controller) {
         this.controller = controller;
+        this.repaints = new RepaintCoordinator(this::paintFrame);
+        this.animationTimer = new Timer(GameCellRenderer.ANIMATION_SPEED, e -> {
+            animationAdvanced = true;
+            repaints.requestFrame();
+        });
         initializeComponents();
         setupLayout();
         setupWindow();
@@ -43,9 +54,11 @@ public class GameView extends JFrame implements GameModel.GameModelListener {
 
     public void initializeGameTable(int rows, int cols) {
         tableModel = new GameTableModel(rows, cols);
+        displayedEpoch = -1;
         gameTable = new JTable(tableModel);
 
-        gameTable.setDefaultRenderer(Object.class, new GameCellRenderer());
+        cellRenderer = new GameCellRenderer();
+        gameTable.setDefaultRenderer(Object.class, cellRenderer);
         gameTable.setRowSelectionAllowed(false);
         gameTable.setColumnSelectionAllowed(false);
         gameTable.setCellSelectionEnabled(false);
@@ -159,34 +172,73 @@ public class GameView extends JFrame implements GameModel.GameModelListener {
 
     @Override
     public void onModelChanged(GameModel model) {
-        SwingUtilities.invokeLater(() -> {
+        changedModel = model;
+        repaints.requestFrame();
+    }
+
+    // Animacja Pac-Mana chodzi tylko w trakcie gry - pauza i menu zatrzymują timer
+    public void setAnimationRunning(boolean running) {
+        if (running) {
+            animationTimer.start();
+        } else {
+            animationTimer.stop();
+        }
+    }
+
+    // Jedna klatka na EDT: najnowszy stan modelu i ewentualnie kolejna klatka animacji
+    private void paintFrame() {
+        // Model zostaje - updateUI pomija migawkę, która już jest na ekranie
+        GameModel model = changedModel;
+        if (model != null) {
             updateUI(model);
-        });
+        }
+        if (animationAdvanced) {
+            animationAdvanced = false;
+            advanceAnimation();
+        }
+    }
+
+    // Przemalowuje tylko pole Pac-Mana, jedyne animowane
+    private void advanceAnimation() {
+        if (cellRenderer == null || tableModel == null || tableModel.getSnapshot() == null) {
+            return;
+        }
+        cellRenderer.nextAnimationFrame();
+        GameSnapshot.EntityState pacman = tableModel.getSnapshot().getPacman();
+        if (pacman != null && tableModel.isValidPosition(pacman.getRow(), pacman.getCol())) {
+            gameTable.repaint(gameTable.getCellRect(pacman.getRow(), pacman.getCol(), false));
+        }
     }
 
     private void updateUI(GameModel model) {
-        scoreLabel.setText("Score: " + model.getScore());
-        livesLabel.setText("Lives: " + model.getLives());
+        GameSnapshot snapshot = model.getSnapshot();
+        if (snapshot.getEpoch() == displayedEpoch) {
+            return;
+        }
+        displayedEpoch = snapshot.getEpoch();
 
-        long timeSeconds = model.getGameTime() / 1000;
+        scoreLabel.setText("Score: " + snapshot.getScore());
+        livesLabel.setText("Lives: " + snapshot.getLives());
+
+        long timeSeconds = snapshot.getGameTime() / 1000;
         long minutes = timeSeconds / 60;
         long seconds = timeSeconds % 60;
         timeLabel.setText(String.format("Time: %02d:%02d", minutes, seconds));
 
-        updatePowerUpPanel(model.getActivePowerUps());
-        updateGameBoard(model);
+        updatePowerUpPanel(snapshot.getActivePowerUps());
+        updateGameBoard(snapshot);
 
-        if (model.getGameState() == GameModel.GameState.GAME_OVER) {
-            showGameOverDialog(model.getScore());
-        } else if (model.getGameState() == GameModel.GameState.VICTORY) {
-            showVictoryDialog(model.getScore());
+        if (snapshot.getGameState() == GameModel.GameState.GAME_OVER) {
+            showGameOverDialog(snapshot.getScore());
+        } else if (snapshot.getGameState() == GameModel.GameState.VICTORY) {
+            showVictoryDialog(snapshot.getScore());
         }
     }
 
-    private void updatePowerUpPanel(List<PowerUp> activePowerUps) {
+    private void updatePowerUpPanel(List<GameSnapshot.ActivePowerUp> activePowerUps) {
         powerUpPanel.removeAll();
 
-        for (PowerUp powerUp : activePowerUps) {
+        for (GameSnapshot.ActivePowerUp powerUp : activePowerUps) {
             JLabel powerUpLabel = new JLabel(
                     powerUp.getType().getSymbol() + " " + powerUp.getRemainingTimeSeconds() + "s"
             );
@@ -199,9 +251,18 @@ public class GameView extends JFrame implements GameModel.GameModelListener {
         powerUpPanel.repaint();
     }
 
-    private void updateGameBoard(GameModel model) {
-        if (tableModel != null && model.getGameBoard() != null) {
-            tableModel.updateBoard(model.getGameBoard().getBoardCopy());
+    private void updateGameBoard(GameSnapshot snapshot) {
+        if (tableModel != null) {
+            tableModel.updateSnapshot(snapshot);
+            followPacman(snapshot);
+        }
+    }
+
+    // Na planszach większych niż okno widok przewija się za Pac-Manem
+    private void followPacman(GameSnapshot snapshot) {
+        GameSnapshot.EntityState pacman = snapshot.getPacman();
+        if (pacman != null && gameTable != null && tableModel.isValidPosition(pacman.getRow(), pacman.getCol())) {
+            gameTable.scrollRectToVisible(gameTable.getCellRect(pacman.getRow(), pacman.getCol(), true));
         }
     }
 
@@ -109,12 +109,12 @@ public class MainMenuView extends JFrame {
     }
 
     private void showNewGameDialog() {
-        JPanel panel = new JPanel(new GridLayout(3, 2, 10, 10));
+        JPanel panel = new JPanel(new GridLayout(5, 2, 10, 10));
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        JLabel rowsLabel = new JLabel("Rows (10-40):");
+        JLabel rowsLabel = new JLabel("Rows (10-10000):");
         JTextField rowsField = new JTextField("20");
-        JLabel colsLabel = new JLabel("Columns (10-40):");
+        JLabel colsLabel = new JLabel("Columns (10-10000):");
         JTextField colsField = new JTextField("25");
 
         panel.add(rowsLabel);
@@ -122,6 +122,17 @@ public class MainMenuView extends JFrame {
         panel.add(colsLabel);
         panel.add(colsField);
 
+        JLabel endlessLabel = new JLabel("Endless (scrolling):");
+        JCheckBox endlessBox = new JCheckBox();
+        panel.add(endlessLabel);
+        panel.add(endlessBox);
+
+        // Więcej niż 4 duchy = tryb roju
+        JLabel ghostsLabel = new JLabel("Ghosts (1-5000):");
+        JTextField ghostsField = new JTextField("4");
+        panel.add(ghostsLabel);
+        panel.add(ghostsField);
+
         int result = JOptionPane.showConfirmDialog(
                 this,
                 panel,
@@ -134,18 +145,29 @@ public class MainMenuView extends JFrame {
             try {
                 int rows = Integer.parseInt(rowsField.getText().trim());
                 int cols = Integer.parseInt(colsField.getText().trim());
+                int ghosts = Integer.parseInt(ghostsField.getText().trim());
 
-                if (rows < 10 || rows > 40 || cols < 10 || cols > 40) {
+                if (rows < 10 || rows > 10000 || cols < 10 || cols > 10000) {
                     JOptionPane.showMessageDialog(
                             this,
-                            "Board size must be between 10 and 40!",
+                            "Board size must be between 10 and 10000!",
                             "Invalid Size",
                             JOptionPane.ERROR_MESSAGE
                     );
                     return;
                 }
 
-                controller.startNewGame(rows, cols);
+                if (ghosts < 1 || ghosts > 5000) {
+                    JOptionPane.showMessageDialog(
+                            this,
+                            "Ghost count must be between 1 and 5000!",
+                            "Invalid Ghost Count",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+                    return;
+                }
+
+                controller.startNewGame(rows, cols, endlessBox.isSelected(), ghosts);
 
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(
@@ -0,0 +1,68 @@
+package view;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Zbiera prośby o odświeżenie z dowolnego wątku i zamienia je w najwyżej jedno malowanie
+// na EDT na klatkę. Bez próśb nic nie działa w tle - bezczynna gra nie zużywa procesora.
+public class RepaintCoordinator {
+
+    public static final int FRAME_MILLIS = 16;
+
+    private final Runnable painter;
+    private final Timer frameTimer;
+    private final AtomicBoolean requested = new AtomicBoolean();
+    private final AtomicLong requestCount = new AtomicLong();
+    private long frameCount;
+    private long lastFrameNanos;
+
+    public RepaintCoordinator(Runnable painter) {
+        this.painter = painter;
+        this.frameTimer = new Timer(FRAME_MILLIS, e -> paintFrame());
+        this.frameTimer.setRepeats(false);
+        this.lastFrameNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(FRAME_MILLIS);
+    }
+
+    // Kolejne prośby przed namalowaniem klatki nic już nie planują
+    public void requestFrame() {
+        requestCount.incrementAndGet();
+        if (requested.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::scheduleFrame);
+        }
+    }
+
+    private void scheduleFrame() {
+        long sinceLastFrame = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastFrameNanos);
+        if (sinceLastFrame >= FRAME_MILLIS) {
+            paintFrame();
+        } else {
+            frameTimer.setInitialDelay((int) (FRAME_MILLIS - sinceLastFrame));
+            frameTimer.restart();
+        }
+    }
+
+    private void paintFrame() {
+        // Zdjęte przed malowaniem - prośba w trakcie malowania dostaje następną klatkę
+        requested.set(false);
+        lastFrameNanos = System.nanoTime();
+        frameCount++;
+        painter.run();
+    }
+
+    public void stop() {
+        frameTimer.stop();
+        requested.set(false);
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    // Wołane tylko z EDT
+    public long getFrameCount() {
+        return frameCount;
+    }
+}